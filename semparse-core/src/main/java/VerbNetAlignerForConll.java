@@ -0,0 +1,53 @@
+import io.github.clearwsd.parser.*;
+import io.github.semlink.verbnet.*;
+import io.github.semlink.parser.*;
+import io.github.semlink.semlink.VerbNetAligner;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+public class VerbNetAlignerForConll {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: VerbNetAlignerForConll <input.conll> <output.txt> [threads]");
+            return;
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        // VerbNet index over VerbNet classes/frames
+        VnIndex verbNet = new DefaultVnIndex();
+
+        // Dependency parser used for WSD model and alignment logic
+        NlpParser dependencyParser = new Nlp4jDependencyParser();
+        // WSD model for predicting VerbNet classes (uses ClearWSD and the NLP4J parser)
+        VerbNetSenseClassifier classifier = VerbNetSenseClassifier.fromModelPath("semparse/nlp4j-verbnet-3.3.bin",
+                verbNet, dependencyParser);
+        // maps nominal predicates with light verbs to VerbNet classes (e.g. take a bath -> dress-41.1.1)
+        LightVerbMapper verbMapper = LightVerbMapper.fromMappingsPath("semparse/lvm.tsv", verbNet);
+        // aligner that uses PropBank VerbNet mappings and heuristics to align PropBank roles with VerbNet thematic roles
+        VerbNetAligner aligner = VerbNetAligner.of("semparse/pbvn-mappings.json", "semparse/unified-frames.bin");
+        VnPredicateDetector predicateDetector = new DefaultVnPredicateDetector(classifier, verbMapper);
+
+        // PropBank roles are read from the input, so no SRL model is needed
+        VerbNetBatchAligner batchAligner = new VerbNetBatchAligner(classifier, predicateDetector, aligner,
+                new ForkJoinPool(threads));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(args[0]),
+                StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[1]),
+                     StandardCharsets.UTF_8))) {
+            batchAligner.alignAll(new ConllSrlReader().read(reader), parse -> {
+                try {
+                    writer.write("**********\n");
+                    writer.write(parse.toString());
+                    writer.write("\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+}
@@ -4,19 +4,39 @@ import io.github.semlink.parser.*;
 import io.github.semlink.propbank.type.PropBankArg;
 import io.github.semlink.semlink.VerbNetAligner;
 
+import java.io.PrintStream;
 import java.util.*;
 
 import static io.github.semlink.parser.VerbNetParser.pbRoleLabeler;
 
 public class VerbNetParserPython {
 
-    public static void main(String[] args) {
+    private static VerbNetParser parser;
+
+    /**
+     * With {@code --worker [threads] [maxInFlight]}, runs a persistent worker reading newline-delimited JSON requests from
+     * stdin and writing JSON results to stdout (see {@link JsonLinesWorker}). Anything else written to stdout, such as console
+     * logging, is redirected to stderr so that stdout only carries responses.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--worker")) {
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            int maxInFlight = args.length > 2 ? Integer.parseInt(args[2]) : 4 * threads;
+            // redirect before the parser is loaded, as model loading logs to the console
+            PrintStream responses = System.out;
+            System.setOut(System.err);
+            new JsonLinesWorker(parser(), threads, maxInFlight).run(System.in, responses);
+            return;
+        }
         List<String> stringList = Arrays.asList("They stole the painting from the museum", "Brown presented a plaque to Jones");
         List<String> parseList = parse(stringList);
         System.out.println(parseList);
     }
 
-    public static List<String> parse(List<String> stringList) {
+    public static synchronized VerbNetParser parser() {
+        if (parser != null) {
+            return parser;
+        }
         // VerbNet index over VerbNet classes/frames
         VnIndex verbNet = new DefaultVnIndex();
 
@@ -34,7 +54,12 @@ public class VerbNetParserPython {
         VnPredicateDetector predicateDetector = new DefaultVnPredicateDetector(classifier, verbMapper);
 
         // simplifying facade over the above components
-        VerbNetParser parser = new VerbNetParser(predicateDetector, classifier, roleLabeler, aligner);
+        parser = new VerbNetParser(predicateDetector, classifier, roleLabeler, aligner);
+        return parser;
+    }
+
+    public static List<String> parse(List<String> stringList) {
+        VerbNetParser parser = parser();
 
         List<String> parseList = new ArrayList<>();
         for (String temp : stringList) {
@@ -45,4 +70,4 @@ public class VerbNetParserPython {
         return parseList;
     }
 
-}
\ No newline at end of file
+}
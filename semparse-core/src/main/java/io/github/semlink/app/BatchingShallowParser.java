@@ -0,0 +1,276 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import io.github.semlink.type.IToken;
+import io.github.semlink.type.ITokenSequence;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link IShallowParser} that collects pending sequences from concurrent callers into micro-batches, so that many small
+ * requests share a single call to an underlying (batched) shallow parser. A batch is dispatched once it reaches a maximum
+ * size, or once its first request has waited for a maximum delay since it was submitted.
+ *
+ * @author jgung
+ */
+@Slf4j
+public class BatchingShallowParser implements IShallowParser<IToken, ITokenSequence> {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final IShallowParser<IToken, ITokenSequence> delegate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    // held (shared) while enqueuing, and exclusively while closing, so that no request is enqueued after the final drain
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong sequenceCount = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+
+    /**
+     * Initialize a batching shallow parser.
+     *
+     * @param delegate     underlying shallow parser, only called from a single scheduler thread
+     * @param maxBatchSize maximum number of sequences in a single batch
+     * @param maxWait      maximum time a request waits for other requests before its batch is dispatched
+     */
+    public BatchingShallowParser(@NonNull IShallowParser<IToken, ITokenSequence> delegate,
+                                 int maxBatchSize,
+                                 @NonNull Duration maxWait) {
+        Preconditions.checkArgument(maxBatchSize > 0, "Maximum batch size must be positive: %s", maxBatchSize);
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.worker = new Thread(this::schedule, "shallow-parser-batcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Enqueue a single sequence for parsing. Cancelling the returned future removes the sequence from the queue if its batch
+     * has not yet been dispatched.
+     *
+     * @param sequence token sequence
+     * @return future completed once the batch containing this sequence has been parsed, or failed if this parser is closed
+     */
+    public CompletableFuture<Chunking<String>> submit(@NonNull ITokenSequence sequence) {
+        Request request = new Request(sequence, new CompletableFuture<>(), System.nanoTime());
+        closeLock.readLock().lock();
+        try {
+            if (!running) {
+                request.result.completeExceptionally(closed());
+                return request.result;
+            }
+            queue.add(request);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        request.result.whenComplete((result, error) -> {
+            if (request.result.isCancelled()) {
+                queue.remove(request);
+            }
+        });
+        maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        // the scheduler thread only exits early if interrupted
+        if (!worker.isAlive() && queue.remove(request)) {
+            request.result.completeExceptionally(closed());
+        }
+        return request.result;
+    }
+
+    @Override
+    public Chunking<String> shallowParse(@NonNull ITokenSequence sequence) {
+        return shallowParseBatch(Collections.singletonList(sequence)).get(0);
+    }
+
+    @Override
+    public List<Chunking<String>> shallowParseBatch(@NonNull List<ITokenSequence> sequence) {
+        List<CompletableFuture<Chunking<String>>> futures = sequence.stream()
+                .map(this::submit)
+                .collect(Collectors.toList());
+        try {
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Enqueue sequences without blocking the calling thread. The executor is not used, as parsing happens on the scheduler
+     * thread. The returned future fails if this parser is closed, and cancelling it removes sequences still in the queue.
+     */
+    @Override
+    public CompletableFuture<List<Chunking<String>>> shallowParseBatchAsync(@NonNull List<ITokenSequence> sequence,
+                                                                            @NonNull Executor executor) {
+        List<CompletableFuture<Chunking<String>>> futures = sequence.stream()
+                .map(this::submit)
+                .collect(Collectors.toList());
+        CompletableFuture<List<Chunking<String>>> result = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()));
+        result.whenComplete((chunkings, error) -> {
+            if (result.isCancelled()) {
+                futures.forEach(future -> future.cancel(false));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Number of sequences currently waiting to be batched.
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Maximum observed number of sequences waiting to be batched.
+     */
+    public long maxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Total number of batches dispatched to the underlying parser.
+     */
+    public long batchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Total number of sequences dispatched to the underlying parser.
+     */
+    public long sequenceCount() {
+        return sequenceCount.get();
+    }
+
+    /**
+     * Mean number of sequences per dispatched batch.
+     */
+    public double averageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) sequenceCount.get() / batches;
+    }
+
+    private void schedule() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (null == first) {
+                    continue;
+                }
+                List<Request> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                // measured from when the first request was enqueued, not from when it was polled
+                long deadline = first.enqueuedNanos + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (null == next) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.result.completeExceptionally(closed());
+        }
+    }
+
+    private void dispatch(List<Request> polled) {
+        // skip requests cancelled after they were polled
+        List<Request> batch = polled.stream()
+                .filter(request -> !request.result.isDone())
+                .collect(Collectors.toList());
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchCount.incrementAndGet();
+        sequenceCount.addAndGet(batch.size());
+        try {
+            List<Chunking<String>> results = delegate.shallowParseBatch(batch.stream()
+                    .map(request -> request.sequence)
+                    .collect(Collectors.toList()));
+            for (int i = 0; i < batch.size(); ++i) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to parse batch of {} sequences", batch.size(), e);
+            batch.forEach(request -> request.result.completeExceptionally(e));
+        }
+    }
+
+    private static IllegalStateException closed() {
+        return new IllegalStateException("Shallow parser has been closed");
+    }
+
+    @Override
+    public void close() throws Exception {
+        closeLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        worker.join();
+        delegate.close();
+    }
+
+    @AllArgsConstructor
+    private static class Request {
+        private final ITokenSequence sequence;
+        private final CompletableFuture<Chunking<String>> result;
+        private final long enqueuedNanos;
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link SubwordTokenizer} that memoizes the subword IDs of individual words in front of another tokenizer. Since word
+ * frequencies are heavily skewed, a small cache avoids most repeated splitting and vocabulary lookups. The cache is bounded by
+ * an approximate size in bytes, evicting least recently used words first, and records hit rate statistics. Thread-safe if
+ * the underlying tokenizer is.
+ *
+ * @author jgung
+ */
+@Slf4j
+public class CachingSubwordTokenizer implements SubwordTokenizer {
+
+    // approximate per-entry overhead of a cache entry, key string and ID array
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final SubwordTokenizer tokenizer;
+    private final Cache<String, int[]> cache;
+
+    /**
+     * Initialize a caching tokenizer.
+     *
+     * @param tokenizer underlying tokenizer
+     * @param maxBytes  approximate maximum size of cached entries in bytes
+     */
+    public CachingSubwordTokenizer(@NonNull SubwordTokenizer tokenizer, long maxBytes) {
+        Preconditions.checkArgument(maxBytes > 0, "Maximum cache size must be positive: %s", maxBytes);
+        this.tokenizer = tokenizer;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(CachingSubwordTokenizer::weight)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Initialize a caching tokenizer, preloading it with the first whole words of a WordPiece vocabulary.
+     *
+     * @param tokenizer    underlying WordPiece tokenizer
+     * @param maxBytes     approximate maximum size of cached entries in bytes
+     * @param preloadWords number of whole words from the vocabulary to preload
+     */
+    public CachingSubwordTokenizer(@NonNull WordPieceTokenizer tokenizer, long maxBytes, int preloadWords) {
+        this(tokenizer, maxBytes);
+        preload(tokenizer.wholeWords(preloadWords));
+    }
+
+    private static int weight(String word, int[] ids) {
+        return ENTRY_OVERHEAD_BYTES + 2 * word.length() + 4 * ids.length;
+    }
+
+    /**
+     * Compute and cache the subword IDs of a list of words, e.g. the most frequent words of the vocabulary. Preloading does
+     * not affect hit rate statistics.
+     *
+     * @param words words to cache
+     */
+    public void preload(@NonNull List<String> words) {
+        for (String word : words) {
+            cache.put(word, tokenizer.wordPieceIds(word));
+        }
+        log.info("Preloaded {} words into subword cache", words.size());
+    }
+
+    @Override
+    public int[] wordPieceIds(@NonNull String word) {
+        int[] ids = cache.getIfPresent(word);
+        if (null == ids) {
+            // concurrent misses on the same word may both compute it, which is cheaper than blocking
+            ids = tokenizer.wordPieceIds(word);
+            cache.put(word, ids);
+        }
+        return ids;
+    }
+
+    @Override
+    public List<Integer> convertTokensToIds(@NonNull List<String> tokens) {
+        return tokenizer.convertTokensToIds(tokens);
+    }
+
+    @Override
+    public List<String> tokenize(@NonNull String text) {
+        return tokenizer.tokenize(text);
+    }
+
+    /**
+     * Cache statistics, including hits, misses and evictions.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Fraction of word lookups served from the cache.
+     */
+    public double hitRate() {
+        return cache.stats().hitRate();
+    }
+
+    /**
+     * Approximate number of cached words.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+}
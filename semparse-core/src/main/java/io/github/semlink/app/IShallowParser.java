@@ -17,6 +17,8 @@
 package io.github.semlink.app;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import lombok.NonNull;
 
@@ -43,4 +45,17 @@ public interface IShallowParser<T, S extends List<T>> extends AutoCloseable {
      */
     List<Chunking<String>> shallowParseBatch(@NonNull List<S> sequence);
 
+    /**
+     * Asynchronously produce a list of phrases from a given batch of sequences of tokens. By default, runs
+     * {@link #shallowParseBatch(List)} on the given executor.
+     *
+     * @param sequence token sequences
+     * @param executor executor used for blocking work
+     * @return future batched lists of phrases
+     */
+    default CompletableFuture<List<Chunking<String>>> shallowParseBatchAsync(@NonNull List<S> sequence,
+                                                                             @NonNull Executor executor) {
+        return CompletableFuture.supplyAsync(() -> shallowParseBatch(sequence), executor);
+    }
+
 }
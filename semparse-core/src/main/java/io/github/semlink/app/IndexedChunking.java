@@ -0,0 +1,286 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.NonNull;
+
+/**
+ * Compact {@link Chunking} storing span boundaries and label IDs in parallel int arrays. A token index maps each token to the
+ * span covering it for constant-time {@link #span(int)}, and a label index maps each distinct label, by
+ * {@link Object#equals(Object) equality}, to the positions of its spans for {@link #spans(Object)}. {@link Span} objects and
+ * the label index are only created on first access.
+ * <p>
+ * Chunkings produced by {@link #map(Chunking, Function)} apply the mapper to each span, as labels may be mutable (e.g.
+ * {@link io.github.semlink.semlink.SemlinkRole}); these share the boundaries and token index of the original. As the label
+ * index is built on the first lookup by label, labels may be updated until then, but should not change equality afterwards.
+ *
+ * @param <T> chunk type
+ * @author jgung
+ */
+public class IndexedChunking<T> implements Chunking<T> {
+
+    private final int size;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] labelIds;
+    private final List<T> labels;
+    // span index for each token, or -1
+    private final int[] tokenSpans;
+
+    private volatile List<Span<T>> spans;
+    // span indices for each distinct label
+    private volatile Map<T, int[]> labelSpans;
+
+    private IndexedChunking(int size, int[] starts, int[] ends, int[] labelIds, List<T> labels, int[] tokenSpans) {
+        this.size = size;
+        this.starts = starts;
+        this.ends = ends;
+        this.labelIds = labelIds;
+        this.labels = labels;
+        this.tokenSpans = tokenSpans;
+    }
+
+    /**
+     * Create an indexed chunking from a list of spans. Where spans overlap, {@link #span(int)} returns the first.
+     *
+     * @param spans list of spans
+     * @return indexed chunking
+     */
+    public static <T> IndexedChunking<T> of(@NonNull List<Span<T>> spans) {
+        List<T> labels = new ArrayList<>();
+        int length = 0;
+        for (Span<T> span : spans) {
+            length = Math.max(length, span.endIndex() + 1);
+        }
+        Builder<T> builder = new Builder<>(length, labels);
+        for (Span<T> span : spans) {
+            // label IDs are shared by identity only, so that each span keeps its own label instance
+            int labelId = indexOfInstance(labels, span.label());
+            if (labelId < 0) {
+                labelId = labels.size();
+                labels.add(span.label());
+            }
+            builder.add(labelId, span.startIndex(), span.endIndex());
+        }
+        return builder.build();
+    }
+
+    private static <T> int indexOfInstance(List<T> labels, T label) {
+        for (int i = 0; i < labels.size(); ++i) {
+            if (labels.get(i) == label) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Map the labels of a chunking, applying a given function to each span's label.
+     *
+     * @param chunking chunking to map
+     * @param mapper   label mapping function
+     * @return indexed chunking with mapped labels
+     */
+    public static <T, A> IndexedChunking<A> map(@NonNull Chunking<T> chunking, @NonNull Function<? super T, ? extends A> mapper) {
+        //noinspection unchecked
+        IndexedChunking<T> indexed = chunking instanceof IndexedChunking ? (IndexedChunking<T>) chunking
+                : of(chunking.spans());
+        List<A> labels = new ArrayList<>(indexed.size);
+        int[] labelIds = new int[indexed.size];
+        for (int i = 0; i < indexed.size; ++i) {
+            labels.add(mapper.apply(indexed.label(i)));
+            labelIds[i] = i;
+        }
+        return new IndexedChunking<>(indexed.size, indexed.starts, indexed.ends, labelIds, labels, indexed.tokenSpans);
+    }
+
+    /**
+     * Number of spans.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Start token index of the span at a given position.
+     */
+    public int start(int span) {
+        Preconditions.checkElementIndex(span, size);
+        return starts[span];
+    }
+
+    /**
+     * End token index (inclusive) of the span at a given position.
+     */
+    public int end(int span) {
+        Preconditions.checkElementIndex(span, size);
+        return ends[span];
+    }
+
+    /**
+     * Label of the span at a given position.
+     */
+    public T label(int span) {
+        Preconditions.checkElementIndex(span, size);
+        return labels.get(labelIds[span]);
+    }
+
+    /**
+     * Position of the span covering a given token, or -1 if not covered.
+     */
+    public int spanIndex(int index) {
+        return index < 0 || index >= tokenSpans.length ? -1 : tokenSpans[index];
+    }
+
+    @Override
+    public Span<T> span(int index) {
+        int span = spanIndex(index);
+        return span < 0 ? null : spans().get(span);
+    }
+
+    @Override
+    public List<Span<T>> spans() {
+        List<Span<T>> result = spans;
+        if (null == result) {
+            List<Span<T>> created = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                created.add(new Span<>(labels.get(labelIds[i]), starts[i], ends[i]));
+            }
+            result = Collections.unmodifiableList(created);
+            spans = result;
+        }
+        return result;
+    }
+
+    @Override
+    public List<Span<T>> spans(@NonNull T label) {
+        int[] positions = labelSpans().get(label);
+        if (null == positions) {
+            return new ArrayList<>();
+        }
+        List<Span<T>> all = spans();
+        List<Span<T>> result = new ArrayList<>(positions.length);
+        for (int span : positions) {
+            result.add(all.get(span));
+        }
+        return result;
+    }
+
+    private Map<T, int[]> labelSpans() {
+        Map<T, int[]> result = labelSpans;
+        if (null == result) {
+            // group spans by equal labels, which may have distinct IDs
+            Map<T, Integer> classes = new HashMap<>();
+            int[] spanClasses = new int[size];
+            int[] counts = new int[size];
+            for (int span = 0; span < size; ++span) {
+                Integer labelClass = classes.putIfAbsent(labels.get(labelIds[span]), classes.size());
+                spanClasses[span] = null == labelClass ? classes.size() - 1 : labelClass;
+                ++counts[spanClasses[span]];
+            }
+            int[][] positions = new int[classes.size()][];
+            for (int labelClass = 0; labelClass < positions.length; ++labelClass) {
+                positions[labelClass] = new int[counts[labelClass]];
+                counts[labelClass] = 0;
+            }
+            for (int span = 0; span < size; ++span) {
+                positions[spanClasses[span]][counts[spanClasses[span]]++] = span;
+            }
+            result = new HashMap<>(2 * classes.size());
+            for (Map.Entry<T, Integer> entry : classes.entrySet()) {
+                result.put(entry.getKey(), positions[entry.getValue()]);
+            }
+            labelSpans = result;
+        }
+        return result;
+    }
+
+    @Override
+    public <V> String toString(@NonNull List<V> tokens) {
+        return spans().stream().map(s -> s.toString(tokens)).collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Builder for chunkings over a given label table, adding spans as label IDs and boundaries.
+     */
+    public static class Builder<T> {
+
+        private final int length;
+        private final List<T> labels;
+        private int size;
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private int[] labelIds = new int[8];
+
+        /**
+         * Initialize a builder.
+         *
+         * @param length number of tokens in the chunked sequence
+         * @param labels label table indexed by label ID, which should not be modified afterwards
+         */
+        public Builder(int length, @NonNull List<T> labels) {
+            this.length = length;
+            this.labels = labels;
+        }
+
+        /**
+         * Add a span with a given label ID and start and (inclusive) end token indices.
+         */
+        public Builder<T> add(int labelId, int start, int end) {
+            Preconditions.checkArgument(start >= 0 && start <= end && end < length,
+                    "Invalid span (%s, %s) for length %s", start, end, length);
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, 2 * size);
+                ends = Arrays.copyOf(ends, 2 * size);
+                labelIds = Arrays.copyOf(labelIds, 2 * size);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            labelIds[size] = labelId;
+            ++size;
+            return this;
+        }
+
+        public IndexedChunking<T> build() {
+            int[] tokenSpans = new int[length];
+            Arrays.fill(tokenSpans, -1);
+            for (int span = 0; span < size; ++span) {
+                Preconditions.checkElementIndex(labelIds[span], labels.size(), "label ID");
+                for (int token = starts[span]; token <= ends[span]; ++token) {
+                    if (tokenSpans[token] < 0) {
+                        tokenSpans[token] = span;
+                    }
+                }
+            }
+            return new IndexedChunking<>(size, Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                    Arrays.copyOf(labelIds, size), labels, tokenSpans);
+        }
+
+    }
+
+}
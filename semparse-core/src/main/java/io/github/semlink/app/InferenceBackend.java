@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import java.util.Map;
+
+import lombok.NonNull;
+
+/**
+ * Service provider interface for inference backends producing {@link LabelingModel models} for {@link ShallowParser}.
+ * Implementations are discovered through {@link java.util.ServiceLoader} (see {@link InferenceBackends}) and must have a public
+ * no-argument constructor.
+ *
+ * @author jgung
+ */
+public interface InferenceBackend {
+
+    /**
+     * Unique name used to select this backend, e.g. "tensorflow".
+     */
+    String name();
+
+    /**
+     * Load a model.
+     *
+     * @param modelDir model directory (may be ignored by backends that do not require model files)
+     * @param options  backend-specific options
+     * @return loaded model
+     */
+    LabelingModel load(@NonNull String modelDir, @NonNull Map<String, String> options);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * Lookup of {@link InferenceBackend inference backends} registered through {@link ServiceLoader}.
+ *
+ * @author jgung
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class InferenceBackends {
+
+    /**
+     * Returns all backends available on the classpath.
+     */
+    public static List<InferenceBackend> available() {
+        List<InferenceBackend> backends = new ArrayList<>();
+        ServiceLoader.load(InferenceBackend.class).forEach(backends::add);
+        return backends;
+    }
+
+    /**
+     * Returns the backend with a given name.
+     *
+     * @param name backend name, e.g. "tensorflow" or "stub"
+     * @return backend
+     * @throws IllegalArgumentException if no backend with the given name is available
+     */
+    public static InferenceBackend forName(@NonNull String name) {
+        for (InferenceBackend backend : ServiceLoader.load(InferenceBackend.class)) {
+            if (backend.name().equals(name)) {
+                return backend;
+            }
+        }
+        throw new IllegalArgumentException("No inference backend named " + name + " is available");
+    }
+
+}
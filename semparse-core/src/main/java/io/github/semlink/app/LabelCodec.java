@@ -0,0 +1,269 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.semlink.app.ShallowParserUtils.Tag;
+import lombok.NonNull;
+
+/**
+ * Codec mapping a model's finite set of output labels to small integer IDs. Each label is parsed into its {@link Tag} and
+ * interned type once, so that output tensors can be decoded into label IDs and {@link Chunking chunkings} without creating a
+ * string per token. Labels not seen before are interned on first use; lookups of known labels are lock-free.
+ *
+ * @author jgung
+ */
+public class LabelCodec {
+
+    /**
+     * Label of positions not assigned a label by the model, such as padding and non-initial subtokens.
+     */
+    public static final String IGNORE_LABEL = "X";
+
+    private static final Tag[] TAGS = Tag.values();
+
+    private final String ignoreLabel;
+    private final Object lock = new Object();
+    private volatile Table table = new Table();
+    private final int outType;
+
+    /**
+     * Initialize a codec that learns labels as they are decoded.
+     *
+     * @param ignoreLabel label dropped from decoded sequences (e.g. subword continuation labels)
+     */
+    public LabelCodec(@NonNull String ignoreLabel) {
+        this.ignoreLabel = ignoreLabel;
+        this.outType = type(id(Tag.OUT.prefix()));
+    }
+
+    /**
+     * Initialize a codec with a known label set.
+     *
+     * @param ignoreLabel label dropped from decoded sequences
+     * @param labels      labels to intern up front
+     */
+    public LabelCodec(@NonNull String ignoreLabel, @NonNull Collection<String> labels) {
+        this(ignoreLabel);
+        labels.forEach(this::id);
+    }
+
+    /**
+     * Returns the ID of a UTF-8 encoded label, interning it if necessary.
+     */
+    public int id(@NonNull byte[] bytes) {
+        int id = table.find(bytes);
+        return id >= 0 ? id : intern(bytes);
+    }
+
+    /**
+     * Returns the ID of a label, interning it if necessary.
+     */
+    public int id(@NonNull String label) {
+        return id(label.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the label for a given ID.
+     */
+    public String label(int id) {
+        return table.labels[id];
+    }
+
+    /**
+     * Returns the tag of a given label ID.
+     */
+    public Tag tag(int id) {
+        return TAGS[table.tags[id]];
+    }
+
+    /**
+     * Returns the type ID of a given label ID, shared by all labels with the same type (e.g. "B-A0" and "I-A0").
+     */
+    public int type(int id) {
+        return table.types[id];
+    }
+
+    /**
+     * Returns the type string for a given type ID.
+     */
+    public String typeLabel(int typeId) {
+        return table.typeLabels[typeId];
+    }
+
+    /**
+     * Number of interned labels.
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * Decode batched UTF-8 encoded labels, such as the contents of a string tensor, into label ID sequences, dropping the
+     * ignored label.
+     *
+     * @param bytes encoded labels for each sequence in the batch
+     * @return label IDs for each sequence in the batch
+     */
+    public List<int[]> decode(@NonNull byte[][][] bytes) {
+        List<int[]> result = new ArrayList<>(bytes.length);
+        for (byte[][] sequence : bytes) {
+            int[] ids = new int[sequence.length];
+            int length = 0;
+            for (byte[] label : sequence) {
+                int id = id(label);
+                if (!table.ignored[id]) {
+                    ids[length++] = id;
+                }
+            }
+            result.add(length == ids.length ? ids : Arrays.copyOf(ids, length));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the (interned) labels for a sequence of label IDs.
+     */
+    public List<String> labels(@NonNull int[] ids) {
+        Table current = table;
+        List<String> labels = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            labels.add(current.labels[id]);
+        }
+        return labels;
+    }
+
+    /**
+     * Convert a sequence of label IDs to a chunking, equivalent to {@link ShallowParserUtils#tags2Spans(List)} over the
+     * corresponding labels.
+     *
+     * @param ids label IDs
+     * @return chunking with interned type labels
+     */
+    public Chunking<String> chunking(@NonNull int[] ids) {
+        Table current = table;
+        int[] tags = new int[ids.length];
+        int[] types = new int[ids.length];
+        for (int i = 0; i < ids.length; ++i) {
+            tags[i] = current.tags[ids[i]];
+            types[i] = current.types[ids[i]];
+        }
+        return ShallowParserUtils.tags2Chunking(tags, types, ids.length, outType, Arrays.asList(current.typeLabels));
+    }
+
+    private int intern(byte[] bytes) {
+        synchronized (lock) {
+            Table current = table;
+            int id = current.find(bytes);
+            if (id >= 0) {
+                return id;
+            }
+            String label = new String(bytes, StandardCharsets.UTF_8);
+            Table updated = current.add(bytes.clone(), label, ShallowParserUtils.labelTag(label),
+                    ShallowParserUtils.labelType(label), label.equals(ignoreLabel));
+            table = updated;
+            return updated.size - 1;
+        }
+    }
+
+    /**
+     * Immutable snapshot of interned labels, replaced as a whole when a new label is added.
+     */
+    private static final class Table {
+
+        private final int size;
+        private final String[] labels;
+        private final byte[][] encoded;
+        private final int[] tags;
+        private final int[] types;
+        private final boolean[] ignored;
+        private final String[] typeLabels;
+        private final Map<String, Integer> typeIds;
+
+        // open-addressing hash table over encoded labels, storing label IDs + 1 (0 marks an empty slot)
+        private final int[] slots;
+
+        private Table() {
+            this(0, new String[0], new byte[0][], new int[0], new int[0], new boolean[0], new String[0], new HashMap<>());
+        }
+
+        private Table(int size, String[] labels, byte[][] encoded, int[] tags, int[] types, boolean[] ignored,
+                      String[] typeLabels, Map<String, Integer> typeIds) {
+            this.size = size;
+            this.labels = labels;
+            this.encoded = encoded;
+            this.tags = tags;
+            this.types = types;
+            this.ignored = ignored;
+            this.typeLabels = typeLabels;
+            this.typeIds = typeIds;
+            this.slots = new int[Integer.highestOneBit(Math.max(4, size * 4))];
+            for (int id = 0; id < size; ++id) {
+                int slot = Arrays.hashCode(encoded[id]) & (slots.length - 1);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & (slots.length - 1);
+                }
+                slots[slot] = id + 1;
+            }
+        }
+
+        private int find(byte[] bytes) {
+            int mask = slots.length - 1;
+            int slot = Arrays.hashCode(bytes) & mask;
+            int entry;
+            while ((entry = slots[slot]) != 0) {
+                if (Arrays.equals(encoded[entry - 1], bytes)) {
+                    return entry - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private Table add(byte[] bytes, String label, Tag tag, String type, boolean ignore) {
+            Map<String, Integer> newTypeIds = new HashMap<>(typeIds);
+            String[] newTypeLabels = typeLabels;
+            Integer typeId = newTypeIds.get(type);
+            if (null == typeId) {
+                typeId = typeLabels.length;
+                newTypeIds.put(type, typeId);
+                newTypeLabels = Arrays.copyOf(typeLabels, typeLabels.length + 1);
+                newTypeLabels[typeId] = type;
+            }
+            String[] newLabels = Arrays.copyOf(labels, size + 1);
+            newLabels[size] = label;
+            byte[][] newEncoded = Arrays.copyOf(encoded, size + 1);
+            newEncoded[size] = bytes;
+            int[] newTags = Arrays.copyOf(tags, size + 1);
+            newTags[size] = tag.ordinal();
+            int[] newTypes = Arrays.copyOf(types, size + 1);
+            newTypes[size] = typeId;
+            boolean[] newIgnored = Arrays.copyOf(ignored, size + 1);
+            newIgnored[size] = ignore;
+            return new Table(size + 1, newLabels, newEncoded, newTags, newTypes, newIgnored, newTypeLabels, newTypeIds);
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import java.util.List;
+
+import io.github.semlink.type.HasFields;
+import lombok.NonNull;
+
+/**
+ * {@link SequencePredictor} producing label IDs interpreted through a {@link LabelCodec}, used by {@link ShallowParser}.
+ *
+ * @author jgung
+ */
+public interface LabelingModel extends SequencePredictor<HasFields>, AutoCloseable {
+
+    /**
+     * Predict label IDs for a given batch of input sequences.
+     *
+     * @param inputs input sequence batch
+     * @return batched sequence label IDs, interpreted by {@link #labelCodec()}
+     */
+    List<int[]> predictLabelIds(@NonNull List<HasFields> inputs);
+
+    /**
+     * Codec mapping label IDs output by this model to labels.
+     */
+    LabelCodec labelCodec();
+
+    @Override
+    void close();
+
+}
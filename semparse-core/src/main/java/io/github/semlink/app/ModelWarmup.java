@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
+
+import io.github.semlink.type.HasFields;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Warms up a model by running synthetic batches for every combination of configured batch-size and sequence-length buckets,
+ * so that Tensorflow initializes kernels and allocators for each input shape before real requests arrive. Per-shape timings
+ * are recorded, and {@link #ready()} only returns true once every shape has been run.
+ *
+ * @author jgung
+ */
+@Slf4j
+public class ModelWarmup {
+
+    private final IntFunction<HasFields> inputGenerator;
+    private final List<Integer> batchSizes;
+    private final List<Integer> sequenceLengths;
+
+    private final List<ShapeTiming> timings = new CopyOnWriteArrayList<>();
+    private volatile boolean ready = false;
+
+    /**
+     * Initialize a warmup routine.
+     *
+     * @param inputGenerator  produces a synthetic input with a given number of tokens
+     * @param batchSizes      batch-size buckets
+     * @param sequenceLengths sequence-length buckets, in tokens
+     */
+    public ModelWarmup(@NonNull IntFunction<HasFields> inputGenerator,
+                       @NonNull List<Integer> batchSizes,
+                       @NonNull List<Integer> sequenceLengths) {
+        Preconditions.checkArgument(batchSizes.stream().allMatch(size -> size > 0), "Batch sizes must be positive");
+        Preconditions.checkArgument(sequenceLengths.stream().allMatch(length -> length > 0),
+                "Sequence lengths must be positive");
+        this.inputGenerator = inputGenerator;
+        this.batchSizes = new ArrayList<>(batchSizes);
+        this.sequenceLengths = new ArrayList<>(sequenceLengths);
+    }
+
+    /**
+     * Initialize a warmup routine with default buckets (batch sizes of 1, 8 and 32, and lengths of 8, 16, 32 and 64 tokens).
+     *
+     * @param inputGenerator produces a synthetic input with a given number of tokens
+     */
+    public ModelWarmup(@NonNull IntFunction<HasFields> inputGenerator) {
+        this(inputGenerator, Arrays.asList(1, 8, 32), Arrays.asList(8, 16, 32, 64));
+    }
+
+    /**
+     * Run synthetic batches of every configured shape through a given model.
+     *
+     * @param model model to warm up
+     * @return per-shape timings
+     */
+    public List<ShapeTiming> run(@NonNull LabelingModel model) {
+        long start = System.currentTimeMillis();
+        for (int length : sequenceLengths) {
+            HasFields input = inputGenerator.apply(length);
+            for (int batchSize : batchSizes) {
+                List<HasFields> batch = Collections.nCopies(batchSize, input);
+                long shapeStart = System.nanoTime();
+                model.predictLabelIds(batch);
+                ShapeTiming timing = new ShapeTiming(batchSize, length, (System.nanoTime() - shapeStart) / 1000000);
+                log.debug("Warmed up {}", timing);
+                timings.add(timing);
+            }
+        }
+        ready = true;
+        log.info("Warmed up {} input shapes in {} ms", batchSizes.size() * sequenceLengths.size(),
+                System.currentTimeMillis() - start);
+        return timings();
+    }
+
+    /**
+     * Returns true once all shapes have been run.
+     */
+    public boolean ready() {
+        return ready;
+    }
+
+    /**
+     * Timings recorded so far, in the order shapes were run.
+     */
+    public List<ShapeTiming> timings() {
+        return Collections.unmodifiableList(new ArrayList<>(timings));
+    }
+
+    /**
+     * Time taken by the first run of a single input shape.
+     */
+    @Getter
+    @Accessors(fluent = true)
+    @AllArgsConstructor
+    public static class ShapeTiming {
+
+        private final int batchSize;
+        private final int sequenceLength;
+        private final long millis;
+
+        @Override
+        public String toString() {
+            return "[" + batchSize + " x " + sequenceLength + "] in " + millis + " ms";
+        }
+
+    }
+
+}
@@ -17,6 +17,8 @@
 package io.github.semlink.app;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import lombok.NonNull;
 
@@ -43,4 +45,16 @@ public interface SequencePredictor<T> {
      */
     List<List<String>> predictBatch(@NonNull List<T> inputs);
 
+    /**
+     * Asynchronously predict labels for a given batch of input sequences. By default, runs {@link #predictBatch(List)} on the
+     * given executor.
+     *
+     * @param inputs   input sequence batch
+     * @param executor executor used for blocking work
+     * @return future batched sequence labels
+     */
+    default CompletableFuture<List<List<String>>> predictBatchAsync(@NonNull List<T> inputs, @NonNull Executor executor) {
+        return CompletableFuture.supplyAsync(() -> predictBatch(inputs), executor);
+    }
+
 }
@@ -31,8 +31,6 @@ import io.github.semlink.type.ITokenSequence;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 
-import static io.github.semlink.app.ShallowParserUtils.tags2Spans;
-
 /**
  * Default {@link IShallowParser} implementation.
  *
@@ -41,7 +39,7 @@ import static io.github.semlink.app.ShallowParserUtils.tags2Spans;
 @AllArgsConstructor
 public class ShallowParser implements IShallowParser<IToken, ITokenSequence> {
 
-    private TensorflowModel predictor;
+    private LabelingModel predictor;
     private Function<ITokenSequence, HasFields> featureExtractor;
 
     @Override
@@ -55,22 +53,33 @@ public class ShallowParser implements IShallowParser<IToken, ITokenSequence> {
                 .map(featureExtractor)
                 .collect(Collectors.toList());
 
-        List<List<String>> labels = predictor.predictBatch(features);
+        List<int[]> labels = predictor.predictLabelIds(features);
         Preconditions.checkState(labels.size() == sequence.size(),
                 "Predictor produced an unexpected number of batches: %s vs. %s", labels.size(), sequence.size());
 
+        LabelCodec codec = predictor.labelCodec();
         Iterator<ITokenSequence> iterator = sequence.iterator();
         List<Chunking<String>> phrases = new ArrayList<>();
-        for (List<String> labeling : labels) {
+        for (int[] labeling : labels) {
             int tokens = iterator.next().size();
-            Preconditions.checkState(labeling.size() == tokens,
-                    "Predictor produced an unexpected number of labels: %s vs. %s", tokens, labeling.size());
-            phrases.add(new DefaultChunking<>(tags2Spans(labeling)));
+            Preconditions.checkState(labeling.length == tokens,
+                    "Predictor produced an unexpected number of labels: %s vs. %s", tokens, labeling.length);
+            phrases.add(codec.chunking(labeling));
         }
 
         return phrases;
     }
 
+    /**
+     * Warm up the underlying model for all input shapes configured in a given {@link ModelWarmup}.
+     *
+     * @param warmup warmup routine
+     * @return per-shape warmup timings
+     */
+    public List<ModelWarmup.ShapeTiming> warmup(@NonNull ModelWarmup warmup) {
+        return warmup.run(predictor);
+    }
+
     @Override
     public void close() {
         predictor.close();
@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 import lombok.AccessLevel;
@@ -37,6 +38,8 @@ import lombok.experimental.Accessors;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class ShallowParserUtils {
 
+    private static final Tag[] TAGS = Tag.values();
+
     public enum Tag {
 
         BEGIN("B"),
@@ -65,9 +68,7 @@ public final class ShallowParserUtils {
     }
 
     public static <A> Chunking<A> mapChunks(@NonNull Chunking<String> chunking, @NonNull Function<String, A> labelMapper) {
-        return new DefaultChunking<>(chunking.spans().stream()
-                .map(span -> Span.convert(span, labelMapper.apply(span.label())))
-                .collect(Collectors.toList()));
+        return IndexedChunking.map(chunking, labelMapper);
     }
 
     public static <T> List<String> spans2Tags(@NonNull List<Span<T>> spans, Function<T, String> labelMapper, int size) {
@@ -113,12 +114,14 @@ public final class ShallowParserUtils {
             currLabel = getType(label);
             currTag = getTag(label);
 
-            if (start >= 0 && end(lastTag, currTag, lastLabel, currLabel)) {
+            boolean sameType = lastLabel.equals(currLabel);
+            // no span is open before the first label, even if a rule would end one (e.g. a leading S- tag)
+            if (start >= 0 && index > 0 && end(lastTag, currTag, sameType)) {
                 spans.add(new Span<>(lastLabel, start, index - 1));
                 start = -1;
             }
 
-            if (start(lastTag, currTag, lastLabel, currLabel)) {
+            if (start(lastTag, currTag, sameType)) {
                 start = index;
             }
 
@@ -126,13 +129,95 @@ public final class ShallowParserUtils {
             lastLabel = currLabel;
         }
 
-        if (start >= 0 && !Tag.OUT.prefix.equals(lastLabel)) {
+        if (start >= 0 && !labels.isEmpty() && !Tag.OUT.prefix.equals(lastLabel)) {
             spans.add(new Span<>(lastLabel, start, labels.size() - 1));
         }
 
         return spans;
     }
 
+    /**
+     * Primitive variant of {@link #tags2Spans(List)} over pre-parsed tags and interned types, producing identical spans.
+     *
+     * @param tags      tag of each label, as {@link Tag} ordinals
+     * @param types     interned type ID of each label (the label without its tag prefix)
+     * @param length    number of labels
+     * @param outType   type ID of the "O" label
+     * @param typeLabel maps type IDs to span labels
+     * @return list of spans
+     */
+    public static <T> List<Span<T>> tags2Spans(@NonNull int[] tags, @NonNull int[] types, int length, int outType,
+                                               @NonNull IntFunction<T> typeLabel) {
+        List<Span<T>> spans = new ArrayList<>();
+        tags2Spans(tags, types, length, outType, (type, start, end) -> spans.add(new Span<>(typeLabel.apply(type), start, end)));
+        return spans;
+    }
+
+    /**
+     * Variant of {@link #tags2Spans(int[], int[], int, int, IntFunction)} producing an {@link IndexedChunking} whose label IDs
+     * are the interned type IDs, without creating intermediate spans.
+     *
+     * @param tags       tag of each label, as {@link Tag} ordinals
+     * @param types      interned type ID of each label (the label without its tag prefix)
+     * @param length     number of labels
+     * @param outType    type ID of the "O" label
+     * @param typeLabels span labels indexed by type ID
+     * @return indexed chunking
+     */
+    public static <T> IndexedChunking<T> tags2Chunking(@NonNull int[] tags, @NonNull int[] types, int length, int outType,
+                                                       @NonNull List<T> typeLabels) {
+        IndexedChunking.Builder<T> builder = new IndexedChunking.Builder<>(length, typeLabels);
+        tags2Spans(tags, types, length, outType, builder::add);
+        return builder.build();
+    }
+
+    private static void tags2Spans(int[] tags, int[] types, int length, int outType, SpanConsumer consumer) {
+        Tag lastTag = Tag.OUT;
+        int lastType = -1;
+        int start = 0;
+        for (int index = 0; index < length; ++index) {
+            Tag currTag = TAGS[tags[index]];
+            int currType = types[index];
+
+            boolean sameType = lastType == currType;
+            // no span is open before the first label, even if a rule would end one (e.g. a leading S- tag)
+            if (start >= 0 && index > 0 && end(lastTag, currTag, sameType)) {
+                consumer.accept(lastType, start, index - 1);
+                start = -1;
+            }
+
+            if (start(lastTag, currTag, sameType)) {
+                start = index;
+            }
+
+            lastTag = currTag;
+            lastType = currType;
+        }
+
+        if (start >= 0 && length > 0 && lastType != outType) {
+            consumer.accept(lastType, start, length - 1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SpanConsumer {
+        void accept(int type, int start, int end);
+    }
+
+    /**
+     * Returns the type of a label, i.e. the label without its tag prefix.
+     */
+    public static String labelType(@NonNull String label) {
+        return getType(label);
+    }
+
+    /**
+     * Returns the tag of a label.
+     */
+    public static Tag labelTag(@NonNull String label) {
+        return getTag(label);
+    }
+
     private static String getType(@NonNull String label) {
         int index = label.indexOf("-");
         if (index > 0) {
@@ -151,7 +236,7 @@ public final class ShallowParserUtils {
         return Tag.IN;
     }
 
-    private static boolean start(@NonNull Tag prevTag, @NonNull Tag currTag, @NonNull String prevType, @NonNull String currType) {
+    private static boolean start(@NonNull Tag prevTag, @NonNull Tag currTag, boolean sameType) {
         if (prevTag.equals(Tag.BEGIN) && currTag.equals(Tag.BEGIN)) {
             return true;
         }
@@ -180,10 +265,10 @@ public final class ShallowParserUtils {
         if (prevTag.equals(Tag.OUT) && currTag.equals(Tag.END)) {
             return true;
         }
-        return !currTag.equals(Tag.OUT) && !prevType.equals(currType);
+        return !currTag.equals(Tag.OUT) && !sameType;
     }
 
-    private static boolean end(@NonNull Tag prevPart, @NonNull Tag currPart, @NonNull String prevType, @NonNull String currType) {
+    private static boolean end(@NonNull Tag prevPart, @NonNull Tag currPart, boolean sameType) {
         if (prevPart.equals(Tag.BEGIN) && currPart.equals(Tag.BEGIN)) {
             return true;
         }
@@ -208,7 +293,7 @@ public final class ShallowParserUtils {
         if (prevPart.equals(Tag.IN) && currPart.equals(Tag.OUT)) {
             return true;
         }
-        return !prevPart.equals(Tag.OUT) && !prevType.equals(currType);
+        return !prevPart.equals(Tag.OUT) && !sameType;
     }
 
 
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.semlink.type.HasFields;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * {@link LabelingModel} wrapper that caps the length of inputs passed to an underlying model. Inputs longer than a maximum
+ * length are split into overlapping windows of consecutive words that all contain the predicate, starting every
+ * {@code stride} words. Windows are run as ordinary items of the same batch, and each token takes its label from the window
+ * in which it is furthest from an edge. Tokens that do not fit in any window with the predicate are labeled "O".
+ * <p>
+ * Length is measured either in words, or, given a {@link SubwordTokenizer}, in the subword pieces of a BERT input: [CLS],
+ * the pieces of each word, [SEP], the pieces of the predicate again, and [SEP]. Windows then hold as many words as fit. If
+ * the predicate alone exceeds the maximum length, its only window is the predicate itself.
+ * <p>
+ * Windows keep the other fields of their input: list fields with one element per word (such as the words themselves) are
+ * restricted to the window, and the predicate index is made relative to the window start.
+ *
+ * @author jgung
+ */
+@Accessors(fluent = true)
+public class SlidingWindowModel implements LabelingModel {
+
+    // [CLS], [SEP] and [SEP] of a BERT input
+    private static final int BERT_SPECIAL_PIECES = 3;
+
+    private final LabelingModel model;
+    // null if length is measured in words
+    private final SubwordTokenizer tokenizer;
+    @Getter
+    private final int maxLength;
+    @Getter
+    private final int stride;
+
+    /**
+     * Field containing the list of input words.
+     */
+    @Setter
+    @NonNull
+    private String wordsKey = "word";
+    /**
+     * Field containing the index of the predicate.
+     */
+    @Setter
+    @NonNull
+    private String predicateIndexKey = "predicate_index";
+
+    private final AtomicLong windowedInputs = new AtomicLong();
+    private final AtomicLong windows = new AtomicLong();
+
+    /**
+     * Initialize a sliding window model measuring length in words.
+     *
+     * @param model     underlying model
+     * @param maxLength maximum number of words in a single input
+     * @param stride    number of words between the starts of consecutive windows
+     */
+    public SlidingWindowModel(@NonNull LabelingModel model, int maxLength, int stride) {
+        this(model, maxLength, stride, null);
+    }
+
+    /**
+     * Initialize a sliding window model measuring length in subword pieces of a BERT input.
+     *
+     * @param model     underlying model
+     * @param tokenizer subword tokenizer used by the underlying model
+     * @param maxPieces maximum number of subword pieces in a single input, including special and repeated predicate pieces
+     * @param stride    number of words between the starts of consecutive windows
+     */
+    public SlidingWindowModel(@NonNull LabelingModel model, @NonNull SubwordTokenizer tokenizer, int maxPieces, int stride) {
+        this(model, maxPieces, stride, tokenizer);
+    }
+
+    private SlidingWindowModel(LabelingModel model, int maxLength, int stride, SubwordTokenizer tokenizer) {
+        Preconditions.checkArgument(maxLength > 0, "Maximum length must be positive: %s", maxLength);
+        Preconditions.checkArgument(stride > 0 && stride <= maxLength,
+                "Stride must be positive and no greater than the maximum length: %s", stride);
+        this.model = model;
+        this.tokenizer = tokenizer;
+        this.maxLength = maxLength;
+        this.stride = stride;
+    }
+
+    /**
+     * Number of inputs that exceeded the maximum length and were split into windows.
+     */
+    public long windowedInputs() {
+        return windowedInputs.get();
+    }
+
+    /**
+     * Total number of windows produced from long inputs.
+     */
+    public long windows() {
+        return windows.get();
+    }
+
+    @Override
+    public List<String> predict(@NonNull HasFields input) {
+        return predictBatch(Collections.singletonList(input)).get(0);
+    }
+
+    @Override
+    public List<List<String>> predictBatch(@NonNull List<HasFields> inputs) {
+        List<List<String>> result = new ArrayList<>(inputs.size());
+        for (int[] ids : predictLabelIds(inputs)) {
+            result.add(model.labelCodec().labels(ids));
+        }
+        return result;
+    }
+
+    @Override
+    public List<int[]> predictLabelIds(@NonNull List<HasFields> inputs) {
+        List<HasFields> batch = new ArrayList<>(inputs.size());
+        // for each input, the window bounds (null for inputs that fit), starting at offsets[i] in the batch
+        List<int[]> starts = new ArrayList<>(inputs.size());
+        List<int[]> ends = new ArrayList<>(inputs.size());
+        int[] offsets = new int[inputs.size()];
+        for (int i = 0; i < inputs.size(); ++i) {
+            HasFields input = inputs.get(i);
+            List<String> words = input.field(wordsKey);
+            int predicate = input.intField(predicateIndexKey);
+            offsets[i] = batch.size();
+
+            // prefix[k] is the length of the first k words
+            int[] prefix = new int[words.size() + 1];
+            for (int k = 0; k < words.size(); ++k) {
+                prefix[k + 1] = prefix[k] + length(words.get(k));
+            }
+            int fixed = fixedLength(predicate, prefix);
+            if (fixed + prefix[words.size()] <= maxLength) {
+                starts.add(null);
+                ends.add(null);
+                batch.add(input);
+                continue;
+            }
+
+            Preconditions.checkElementIndex(predicate, words.size(), "predicate index");
+            int[][] bounds = windows(predicate, prefix, maxLength - fixed);
+            for (int w = 0; w < bounds[0].length; ++w) {
+                batch.add(new WindowFields(input, words.size(), bounds[0][w], bounds[1][w], predicate));
+            }
+            starts.add(bounds[0]);
+            ends.add(bounds[1]);
+            windowedInputs.incrementAndGet();
+            windows.addAndGet(bounds[0].length);
+        }
+
+        List<int[]> predictions = model.predictLabelIds(batch);
+        int outside = model.labelCodec().id(ShallowParserUtils.Tag.OUT.prefix());
+
+        List<int[]> result = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); ++i) {
+            int[] windowStarts = starts.get(i);
+            if (null == windowStarts) {
+                result.add(predictions.get(offsets[i]));
+                continue;
+            }
+            int[] windowEnds = ends.get(i);
+            int length = inputs.get(i).<List<String>>field(wordsKey).size();
+            int[] labels = new int[length];
+            int[] margins = new int[length];
+            Arrays.fill(labels, outside);
+            Arrays.fill(margins, -1);
+            for (int w = 0; w < windowStarts.length; ++w) {
+                int start = windowStarts[w];
+                int size = windowEnds[w] - start;
+                int[] window = predictions.get(offsets[i] + w);
+                for (int j = 0; j < window.length; ++j) {
+                    int margin = Math.min(j, size - 1 - j);
+                    if (margin > margins[start + j]) {
+                        margins[start + j] = margin;
+                        labels[start + j] = window[j];
+                    }
+                }
+            }
+            result.add(labels);
+        }
+        return result;
+    }
+
+    /**
+     * Length of a single word: 1 in words, or its number of subword pieces (at least 1, as in the BERT feature extractor).
+     */
+    private int length(String word) {
+        return null == tokenizer ? 1 : Math.max(1, tokenizer.wordPieceIds(word).length);
+    }
+
+    /**
+     * Length added to every window independently of its words: none in words, or special and repeated predicate pieces.
+     */
+    private int fixedLength(int predicate, int[] prefix) {
+        if (null == tokenizer) {
+            return 0;
+        }
+        boolean hasPredicate = predicate >= 0 && predicate < prefix.length - 1;
+        return BERT_SPECIAL_PIECES + (hasPredicate ? prefix[predicate + 1] - prefix[predicate] : 0);
+    }
+
+    /**
+     * Start (inclusive) and end (exclusive) word offsets of windows containing a given predicate, each of the greatest extent
+     * within a given budget. Windows start every {@code stride} words from the leftmost such window, always including the
+     * rightmost one.
+     *
+     * @param predicate predicate word index
+     * @param prefix    length of the first k words, for each k
+     * @param budget    maximum total length of the words of a window
+     * @return window starts and ends
+     */
+    private int[][] windows(int predicate, int[] prefix, int budget) {
+        int length = prefix.length - 1;
+        // leftmost start whose window reaches the predicate
+        int first = predicate;
+        while (first > 0 && prefix[predicate + 1] - prefix[first - 1] <= budget) {
+            --first;
+        }
+        // leftmost start whose window reaches the end, or the predicate if none does
+        int last = first;
+        while (last < predicate && prefix[length] - prefix[last] > budget) {
+            ++last;
+        }
+
+        List<Integer> starts = new ArrayList<>();
+        for (int start = first; start < last; start += stride) {
+            starts.add(start);
+        }
+        starts.add(last);
+
+        int[][] bounds = new int[2][starts.size()];
+        for (int w = 0; w < starts.size(); ++w) {
+            int start = starts.get(w);
+            // rightmost end within the budget, always including the predicate
+            int end = predicate + 1;
+            while (end < length && prefix[end + 1] - prefix[start] <= budget) {
+                ++end;
+            }
+            bounds[0][w] = start;
+            bounds[1][w] = end;
+        }
+        return bounds;
+    }
+
+    @Override
+    public LabelCodec labelCodec() {
+        return model.labelCodec();
+    }
+
+    @Override
+    public void close() {
+        model.close();
+    }
+
+    /**
+     * View of the fields of an input within a window.
+     */
+    private final class WindowFields implements HasFields {
+
+        private final HasFields input;
+        private final int length;
+        private final int start;
+        private final int end;
+        private final int predicate;
+
+        private WindowFields(HasFields input, int length, int start, int end, int predicate) {
+            this.input = input;
+            this.length = length;
+            this.start = start;
+            this.end = end;
+            this.predicate = predicate;
+        }
+
+        private <T> T restrict(Object value) {
+            if (value instanceof List && ((List<?>) value).size() == length) {
+                value = ((List<?>) value).subList(start, end);
+            }
+            //noinspection unchecked
+            return (T) value;
+        }
+
+        @Override
+        public <T> T field(@NonNull String key) {
+            if (predicateIndexKey.equals(key)) {
+                //noinspection unchecked
+                return (T) Integer.valueOf(predicate - start);
+            }
+            return restrict(input.field(key));
+        }
+
+        @Override
+        public <T> T field(@NonNull Enum key) {
+            return restrict(input.field(key));
+        }
+
+        @Override
+        public int intField(@NonNull String key) {
+            return predicateIndexKey.equals(key) ? predicate - start : input.intField(key);
+        }
+
+        @Override
+        public boolean hasFields(@NonNull EnumSet<?> keys) {
+            return input.hasFields(keys);
+        }
+
+        @Override
+        public boolean hasFields(@NonNull String... keys) {
+            return input.hasFields(keys);
+        }
+
+    }
+
+}
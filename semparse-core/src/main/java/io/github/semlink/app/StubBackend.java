@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import java.util.Map;
+
+import lombok.NonNull;
+
+/**
+ * {@link InferenceBackend} producing deterministic {@link StubModel stub models}. The model directory is ignored. Supported
+ * options are "batchLatencyMicros" and "tokenLatencyMicros" for simulated latency, and "wordsKey" and "predicateIndexKey" for
+ * input field names.
+ *
+ * @author jgung
+ */
+public class StubBackend implements InferenceBackend {
+
+    public static final String NAME = "stub";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public LabelingModel load(@NonNull String modelDir, @NonNull Map<String, String> options) {
+        StubModel model = new StubModel();
+        if (options.containsKey("batchLatencyMicros")) {
+            model.batchLatencyMicros(Long.parseLong(options.get("batchLatencyMicros")));
+        }
+        if (options.containsKey("tokenLatencyMicros")) {
+            model.tokenLatencyMicros(Long.parseLong(options.get("tokenLatencyMicros")));
+        }
+        if (options.containsKey("wordsKey")) {
+            model.wordsKey(options.get("wordsKey"));
+        }
+        if (options.containsKey("predicateIndexKey")) {
+            model.predicateIndexKey(options.get("predicateIndexKey"));
+        }
+        return model;
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import io.github.semlink.type.HasFields;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Deterministic {@link LabelingModel} for benchmarking and testing the pipeline without model files or native libraries.
+ * Labels each sequence as a semantic role labeler would, with every token before the predicate as A0, the predicate as V, and
+ * every token after it as A1. Inference latency is simulated by parking the calling thread for a fixed time per batch plus a
+ * time per token.
+ *
+ * @author jgung
+ */
+@Getter
+@Setter
+@Accessors(fluent = true)
+public class StubModel implements LabelingModel {
+
+    /**
+     * Field containing the list of input words.
+     */
+    @NonNull
+    private String wordsKey = "word";
+    /**
+     * Field containing the index of the predicate.
+     */
+    @NonNull
+    private String predicateIndexKey = "predicate_index";
+    /**
+     * Simulated latency for each batch, in microseconds.
+     */
+    private long batchLatencyMicros = 0;
+    /**
+     * Simulated latency for each token in a batch, in microseconds.
+     */
+    private long tokenLatencyMicros = 0;
+
+    private final LabelCodec labelCodec = new LabelCodec(LabelCodec.IGNORE_LABEL);
+
+    @Override
+    public List<String> predict(@NonNull HasFields input) {
+        return predictBatch(Collections.singletonList(input)).get(0);
+    }
+
+    @Override
+    public List<List<String>> predictBatch(@NonNull List<HasFields> inputs) {
+        List<List<String>> result = new ArrayList<>(inputs.size());
+        for (int[] ids : predictLabelIds(inputs)) {
+            result.add(labelCodec.labels(ids));
+        }
+        return result;
+    }
+
+    @Override
+    public List<int[]> predictLabelIds(@NonNull List<HasFields> inputs) {
+        int beginA0 = labelCodec.id("B-A0");
+        int inA0 = labelCodec.id("I-A0");
+        int beginV = labelCodec.id("B-V");
+        int beginA1 = labelCodec.id("B-A1");
+        int inA1 = labelCodec.id("I-A1");
+
+        long tokens = 0;
+        List<int[]> result = new ArrayList<>(inputs.size());
+        for (HasFields input : inputs) {
+            List<String> words = input.field(wordsKey);
+            int predicate = input.intField(predicateIndexKey);
+            int[] labels = new int[words.size()];
+            for (int i = 0; i < labels.length; ++i) {
+                if (i < predicate) {
+                    labels[i] = i == 0 ? beginA0 : inA0;
+                } else if (i == predicate) {
+                    labels[i] = beginV;
+                } else {
+                    labels[i] = i == predicate + 1 ? beginA1 : inA1;
+                }
+            }
+            tokens += labels.length;
+            result.add(labels);
+        }
+
+        long latency = batchLatencyMicros + tokens * tokenLatencyMicros;
+        if (latency > 0) {
+            long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(latency);
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public LabelCodec labelCodec() {
+        return labelCodec;
+    }
+
+    @Override
+    public void close() {
+        // no resources to release
+    }
+
+}
@@ -5,7 +5,7 @@ import java.util.List;
 import lombok.NonNull;
 
 /**
- * String-level tokenizer.
+ * String-level tokenizer. Implementations must be thread-safe, as batches may be extracted in parallel.
  *
  * @author jamesgung
  */
@@ -21,4 +21,13 @@ public interface SubwordTokenizer {
      */
     List<String> tokenize(@NonNull String text);
 
+    /**
+     * Convert a single word to the IDs of its subword tokens. Returned arrays may be shared, and should not be modified.
+     */
+    default int[] wordPieceIds(@NonNull String word) {
+        return convertTokensToIds(tokenize(word)).stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
 }
@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -30,19 +31,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import lombok.AllArgsConstructor;
+import io.github.semlink.util.StringIndex;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * WordPiece tokenizer to produce inputs to BERT published models. Based on BERT implementation.
+ * WordPiece tokenizer to produce inputs to BERT published models. Based on BERT implementation. Immutable and thread-safe.
+ * <p>
+ * Vocabularies are read one piece per line, with IDs assigned by line number. Duplicate pieces are rejected, as they would
+ * leave IDs that map back to no piece.
  *
  * @author jamesgung
  * @see <a href="https://github.com/google-research/bert">https://github.com/google-research/bert</a>
  * @see <a href="https://arxiv.org/abs/1609.08144">https://arxiv.org/abs/1609.08144</a>
  */
 @Slf4j
-@AllArgsConstructor
 public class WordPieceTokenizer implements SubwordTokenizer {
 
     public static List<String> whitespaceTokenize(@NonNull String text) {
@@ -53,51 +56,111 @@ public class WordPieceTokenizer implements SubwordTokenizer {
         return Arrays.asList(text.split("\\s+"));
     }
 
+    /**
+     * Read a wordpiece vocabulary from a given path as a {@link StringIndex} shared with other tokenizers loading the same file.
+     * Paths ending with {@link StringIndex#EXTENSION} are memory-mapped as prebuilt indices. Otherwise, classpath resources are
+     * checked first, then the file system.
+     *
+     * @param path vocabulary path
+     * @return wordpiece vocabulary
+     * @throws IllegalStateException if the vocabulary contains duplicate pieces
+     */
+    public static StringIndex readIndex(@NonNull String path) {
+        return StringIndex.shared("wordpiece", path, p -> {
+            if (p.endsWith(StringIndex.EXTENSION)) {
+                return StringIndex.map(Paths.get(p));
+            }
+            try {
+                URL resource = WordPieceTokenizer.class.getClassLoader().getResource(p);
+                try (InputStream inputStream = null == resource ? new FileInputStream(p) : resource.openStream()) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+                    StringIndex index = StringIndex.of(reader.lines()
+                        .filter(line -> !line.isEmpty())
+                        .collect(Collectors.toList()));
+                    log.info("Read {}-length vocabulary from {}", index.size(), p);
+                    return index;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to load vocabulary at path: " + p, e);
+            }
+        });
+    }
+
     /**
      * Read a wordpiece vocabulary from a given path, first checking classpath resources, then the file system.
      *
      * @param path vocabulary path
      * @return wordpiece vocabulary
+     * @throws IllegalStateException if the vocabulary contains duplicate pieces
+     * @deprecated use {@link #readIndex(String)}, which avoids boxing each piece ID
      */
+    @Deprecated
     public static Map<String, Integer> readVocabulary(@NonNull String path) {
-        try {
-            Map<String, Integer> vocab = new HashMap<>();
-            URL resource = WordPieceTokenizer.class.getClassLoader().getResource(path);
-            try (InputStream inputStream = null == resource ? new FileInputStream(path) : resource.openStream()) {
-                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)).lines()
-                    .filter(line -> !line.isEmpty())
-                    .forEach(entry -> vocab.put(entry, vocab.size()));
-            }
-            log.info("Read {}-length vocabulary from {}", vocab.size(), path);
-            return vocab;
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to load vocabulary at path: " + path, e);
+        StringIndex index = readIndex(path);
+        Map<String, Integer> vocab = new HashMap<>(2 * index.size());
+        for (int id = 0; id < index.size(); ++id) {
+            vocab.put(index.get(id), id);
         }
+        return vocab;
     }
 
-    private Map<String, Integer> vocabulary;
+    private StringIndex vocabulary;
     private String unkToken;
+    private int unkId;
     private int maxInputCharsPerWord;
 
+    public WordPieceTokenizer(@NonNull StringIndex vocabulary, @NonNull String unkToken, int maxInputCharsPerWord) {
+        this.vocabulary = vocabulary;
+        this.unkToken = unkToken;
+        this.unkId = vocabulary.get(unkToken);
+        this.maxInputCharsPerWord = maxInputCharsPerWord;
+    }
+
+    public WordPieceTokenizer(@NonNull Map<String, Integer> vocabulary, @NonNull String unkToken, int maxInputCharsPerWord) {
+        this(StringIndex.of(vocabulary), unkToken, maxInputCharsPerWord);
+    }
+
     public WordPieceTokenizer(Map<String, Integer> vocabulary) {
         this(vocabulary, "[UNK]", 200);
     }
 
     public WordPieceTokenizer(@NonNull String path) {
-        this(readVocabulary(path));
+        this(readIndex(path), "[UNK]", 200);
+    }
+
+    /**
+     * Return up to a given number of whole words (excluding continuation pieces and bracketed special tokens) from the
+     * vocabulary, in vocabulary order. BERT vocabularies are sorted roughly by frequency after their special tokens, so these
+     * approximate the most frequent words.
+     *
+     * @param limit maximum number of words
+     * @return whole words in vocabulary order
+     */
+    public List<String> wholeWords(int limit) {
+        List<String> words = new ArrayList<>();
+        for (int id = 0; id < vocabulary.size() && words.size() < limit; ++id) {
+            String entry = vocabulary.get(id);
+            if (!entry.startsWith("##") && !(entry.startsWith("[") && entry.endsWith("]"))) {
+                words.add(entry);
+            }
+        }
+        return words;
     }
 
     /**
      * Convert a list of word piece tokens to corresponding vocabulary IDs.
      *
      * @param tokens word piece tokens
-     * @return vocabulary indices
+     * @return vocabulary indices, null for tokens not in the vocabulary
      */
     @Override
     public List<Integer> convertTokensToIds(@NonNull List<String> tokens) {
-        return tokens.stream()
-            .map(vocabulary::get)
-            .collect(Collectors.toList());
+        List<Integer> ids = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            int id = vocabulary.get(token);
+            ids.add(id < 0 ? null : id);
+        }
+        return ids;
     }
 
     /**
@@ -109,48 +172,63 @@ public class WordPieceTokenizer implements SubwordTokenizer {
     @Override
     public List<String> tokenize(@NonNull String text) {
         List<String> outputTokens = new ArrayList<>();
-
+        StringBuilder buffer = new StringBuilder();
         for (String token : whitespaceTokenize(text)) {
-
-            if (token.length() > maxInputCharsPerWord) {
-                outputTokens.add(unkToken);
-                continue;
+            for (int id : split(token, buffer)) {
+                outputTokens.add(id == unkId ? unkToken : vocabulary.get(id));
             }
+        }
+        return outputTokens;
+    }
+
+    @Override
+    public int[] wordPieceIds(@NonNull String word) {
+        List<String> tokens = whitespaceTokenize(word);
+        StringBuilder buffer = new StringBuilder();
+        if (tokens.size() == 1) {
+            return split(tokens.get(0), buffer);
+        }
+        return tokens.stream()
+            .flatMapToInt(token -> Arrays.stream(split(token, buffer)))
+            .toArray();
+    }
+
+    /**
+     * Greedily split a single token into the longest matching word pieces, returning their IDs, or the unknown token ID if the
+     * token cannot be split. Candidate pieces are looked up in a reused buffer rather than as new strings.
+     */
+    private int[] split(String token, StringBuilder buffer) {
+        if (token.length() > maxInputCharsPerWord) {
+            return new int[]{unkId};
+        }
 
-            boolean isBad = false;
-            int start = 0;
-            List<String> subTokens = new ArrayList<>();
-            while (start < token.length()) {
-                int end = token.length();
-                String curSubstr = null;
-
-                while (start < end) {
-                    String substr = token.substring(start, end);
-                    if (start > 0) {
-                        substr = "##" + substr;
-                    }
-                    if (vocabulary.containsKey(substr)) {
-                        curSubstr = substr;
-                        break;
-                    }
-                    end -= 1;
+        int[] subTokens = new int[token.length()];
+        int count = 0;
+        int start = 0;
+        while (start < token.length()) {
+            int end = token.length();
+            int curSubstr = -1;
+
+            while (start < end) {
+                buffer.setLength(0);
+                if (start > 0) {
+                    buffer.append("##");
                 }
-                if (null == curSubstr) {
-                    isBad = true;
+                buffer.append(token, start, end);
+                int id = vocabulary.get(buffer);
+                if (id >= 0) {
+                    curSubstr = id;
                     break;
                 }
-                subTokens.add(curSubstr);
-                start = end;
+                end -= 1;
             }
-
-            if (isBad) {
-                outputTokens.add(unkToken);
-            } else {
-                outputTokens.addAll(subTokens);
+            if (curSubstr < 0) {
+                return new int[]{unkId};
             }
-
+            subTokens[count++] = curSubstr;
+            start = end;
         }
-        return outputTokens;
+        return Arrays.copyOf(subTokens, count);
     }
 
 }
@@ -23,17 +23,13 @@ import org.tensorflow.example.BytesList;
 import org.tensorflow.example.Feature;
 import org.tensorflow.example.FeatureList;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 import io.github.semlink.extractor.config.FeatureSpec;
+import io.github.semlink.tensor.SequenceExampleWriter;
 import io.github.semlink.type.HasFields;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
-import static java.util.Collections.nCopies;
-
 /**
  * Character feature extractor.
  *
@@ -41,7 +37,10 @@ import static java.util.Collections.nCopies;
  */
 @Getter
 @Accessors(fluent = true)
-public class CharacterFeatureExtractor extends BaseFeatureExtractor<FeatureList> {
+public class CharacterFeatureExtractor extends BaseFeatureExtractor<FeatureList> implements TokenExtractor {
+
+    // code points below U+0800 have one or two byte UTF-8 encodings
+    private static final ByteString[] CACHED_CODE_POINTS = new ByteString[0x800];
 
     private String padWord;
     private String startWord;
@@ -50,6 +49,13 @@ public class CharacterFeatureExtractor extends BaseFeatureExtractor<FeatureList>
     private int leftPadding;
     private int rightPadding;
 
+    @Getter(AccessLevel.NONE)
+    private final ByteString padBytes;
+    @Getter(AccessLevel.NONE)
+    private final ByteString startBytes;
+    @Getter(AccessLevel.NONE)
+    private final ByteString endBytes;
+
     public CharacterFeatureExtractor(FeatureSpec feature, Vocabulary vocabulary) {
         super(feature.name(), feature.key(), vocabulary);
         this.maxLength = feature.maxLen();
@@ -58,48 +64,88 @@ public class CharacterFeatureExtractor extends BaseFeatureExtractor<FeatureList>
         this.padWord = feature.padWord();
         this.startWord = feature.leftPadWord();
         this.endWord = feature.rightPadWord();
+        this.padBytes = ByteString.copyFromUtf8(padWord);
+        this.startBytes = ByteString.copyFromUtf8(startWord);
+        this.endBytes = ByteString.copyFromUtf8(endWord);
     }
 
     @Override
     public FeatureList extract(HasFields seq) {
         FeatureList.Builder builder = FeatureList.newBuilder();
-        getValues(seq).stream()
-                .map(this::mapToChars)
-                .map(this::padAndTruncate)
-                .map(text -> Feature.newBuilder().setBytesList(
-                        BytesList.newBuilder().addAllValue(text.stream()
-                                .map(ByteString::copyFromUtf8)
-                                .collect(Collectors.toList()))))
-                .forEach(builder::addFeature);
+        for (String token : getValues(seq)) {
+            builder.addFeature(extractToken(token));
+        }
         return builder.build();
     }
 
-    private List<String> padAndTruncate(List<String> chars) {
-        // add start padding
-        List<String> result = new ArrayList<>(nCopies(leftPadding, startWord));
-        // add characters
-        result.addAll(chars);
-        // add end padding
-        result.addAll(nCopies(rightPadding, endWord));
-
-        // trim or pad resulting sequence
-        if (result.size() < maxLength) {
-            result.addAll(nCopies(maxLength - result.size(), padWord));
-        } else {
-            result = result.subList(0, maxLength);
+    /**
+     * Extract the characters of a single token, after start padding and followed by end padding, truncated or padded to the
+     * maximum length. Characters are Unicode code points, so surrogate pairs produce a single feature value.
+     */
+    @Override
+    public Feature extractToken(String token) {
+        String chars = map(token);
+        BytesList.Builder values = BytesList.newBuilder();
+        int charsEnd = leftPadding + chars.codePointCount(0, chars.length());
+        int end = charsEnd + rightPadding;
+        int offset = 0;
+        for (int i = 0; i < maxLength; ++i) {
+            if (i < leftPadding) {
+                values.addValue(startBytes);
+            } else if (i < charsEnd) {
+                int codePoint = chars.codePointAt(offset);
+                offset += Character.charCount(codePoint);
+                values.addValue(utf8(codePoint));
+            } else if (i < end) {
+                values.addValue(endBytes);
+            } else {
+                values.addValue(padBytes);
+            }
         }
-        return result;
+        return Feature.newBuilder().setBytesList(values).build();
     }
 
-    private List<String> mapToChars(String original) {
-        original = super.map(original);
-
-        List<String> characters = new ArrayList<>();
-        for (char c : original.toCharArray()) {
-            characters.add(String.valueOf(c));
+    /**
+     * Write the characters of a single token as by {@link #extractToken(String)}, without building the proto or the UTF-8
+     * encoding of each character.
+     */
+    @Override
+    public void writeToken(String token, SequenceExampleWriter writer) {
+        String chars = map(token);
+        int charsEnd = leftPadding + chars.codePointCount(0, chars.length());
+        int end = charsEnd + rightPadding;
+        int offset = 0;
+        writer.startBytesFeature();
+        for (int i = 0; i < maxLength; ++i) {
+            if (i < leftPadding) {
+                writer.bytesValue(startBytes);
+            } else if (i < charsEnd) {
+                int codePoint = chars.codePointAt(offset);
+                offset += Character.charCount(codePoint);
+                writer.utf8Value(codePoint);
+            } else if (i < end) {
+                writer.bytesValue(endBytes);
+            } else {
+                writer.bytesValue(padBytes);
+            }
         }
+        writer.endBytesFeature();
+    }
 
-        return characters;
+    /**
+     * UTF-8 encoding of a single code point, shared for one and two byte encodings. Unpaired surrogates are encoded as '?'.
+     */
+    private static ByteString utf8(int codePoint) {
+        if (codePoint >= CACHED_CODE_POINTS.length) {
+            return ByteString.copyFromUtf8(new String(Character.toChars(codePoint)));
+        }
+        ByteString bytes = CACHED_CODE_POINTS[codePoint];
+        if (null == bytes) {
+            // benign race, ByteStrings are immutable
+            bytes = ByteString.copyFromUtf8(String.valueOf((char) codePoint));
+            CACHED_CODE_POINTS[codePoint] = bytes;
+        }
+        return bytes;
     }
 
 }
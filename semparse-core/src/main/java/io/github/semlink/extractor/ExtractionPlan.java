@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.extractor;
+
+import org.tensorflow.example.Feature;
+import org.tensorflow.example.FeatureList;
+import org.tensorflow.example.FeatureLists;
+import org.tensorflow.example.Features;
+import org.tensorflow.example.SequenceExample;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.github.semlink.tensor.SequenceExampleWriter;
+import io.github.semlink.type.HasFields;
+import lombok.NonNull;
+
+/**
+ * Sequence example extractor compiled from a list of extractors. Token-level extractors sharing an input field are grouped so
+ * that each field is read once, and all feature lists are filled in a single pass over the tokens. Other feature list
+ * extractors and context feature extractors are applied as in {@link DefaultSequenceExampleExtractor}. Feature lists are
+ * added in the same order as the extractors they come from. Thread-safe if its extractors are, which holds for all extractors
+ * created by {@link io.github.semlink.extractor.config.Extractors} as long as they are not reconfigured after creation.
+ *
+ * @author jgung
+ */
+public class ExtractionPlan implements SequenceExampleExtractor {
+
+    private final List<Extractor<FeatureList>> featureListExtractors;
+    private final List<Extractor<Feature>> featureExtractors;
+    private final Map<String, Vocabulary> vocabularyMap;
+
+    // distinct input fields of token extractors
+    private final String[] keys;
+    // token extractors, and the index of each one's input field in keys
+    private final TokenExtractor[] tokenExtractors;
+    private final int[] keyIndices;
+    // whether feature list and context feature names are distinct, so that each one is written exactly once
+    private final boolean distinctNames;
+
+    public ExtractionPlan(@NonNull List<Extractor<FeatureList>> featureListExtractors,
+                          @NonNull List<Extractor<Feature>> featureExtractors,
+                          @NonNull Map<String, Vocabulary> vocabularyMap) {
+        this.featureListExtractors = new ArrayList<>(featureListExtractors);
+        this.featureExtractors = new ArrayList<>(featureExtractors);
+        this.vocabularyMap = new HashMap<>(vocabularyMap);
+
+        List<String> keys = new ArrayList<>();
+        List<TokenExtractor> tokenExtractors = new ArrayList<>();
+        for (Extractor<FeatureList> extractor : featureListExtractors) {
+            if (extractor instanceof TokenExtractor) {
+                TokenExtractor tokenExtractor = (TokenExtractor) extractor;
+                tokenExtractors.add(tokenExtractor);
+                if (!keys.contains(tokenExtractor.key())) {
+                    keys.add(tokenExtractor.key());
+                }
+            }
+        }
+        this.keys = keys.toArray(new String[0]);
+        this.tokenExtractors = tokenExtractors.toArray(new TokenExtractor[0]);
+        this.keyIndices = tokenExtractors.stream().mapToInt(extractor -> keys.indexOf(extractor.key())).toArray();
+        this.distinctNames = featureListExtractors.stream().map(Extractor::name).distinct().count()
+                == featureListExtractors.size()
+                && featureExtractors.stream().map(Extractor::name).distinct().count() == featureExtractors.size();
+    }
+
+    @Override
+    public SequenceExample extractSequence(@NonNull HasFields sequence) {
+        FeatureList.Builder[] builders = extractTokens(sequence);
+
+        FeatureLists.Builder featureLists = FeatureLists.newBuilder();
+        int tokenExtractor = 0;
+        for (Extractor<FeatureList> featureListExtractor : featureListExtractors) {
+            if (featureListExtractor instanceof TokenExtractor) {
+                featureLists.putFeatureList(featureListExtractor.name(), builders[tokenExtractor++].build());
+            } else {
+                featureLists.putFeatureList(featureListExtractor.name(), featureListExtractor.extract(sequence));
+            }
+        }
+        Features.Builder features = Features.newBuilder();
+        for (Extractor<Feature> featureExtractor : featureExtractors) {
+            features.putFeature(featureExtractor.name(), featureExtractor.extract(sequence));
+        }
+        return SequenceExample.newBuilder()
+                .setContext(features)
+                .setFeatureLists(featureLists)
+                .build();
+    }
+
+    /**
+     * Writes the same features as {@link #extractSequence(HasFields)}, in the same order, streaming token features into the
+     * writer rather than building feature lists. Falls back to serializing the extracted proto if extractor names repeat, as
+     * later features then replace earlier ones.
+     */
+    @Override
+    public void writeSequence(@NonNull HasFields sequence, @NonNull SequenceExampleWriter writer) {
+        if (!distinctNames) {
+            writer.write(extractSequence(sequence));
+            return;
+        }
+        List<List<String>> values = readTokens(sequence);
+        List<Feature> features = new ArrayList<>(featureExtractors.size());
+        for (Extractor<Feature> featureExtractor : featureExtractors) {
+            features.add(featureExtractor.extract(sequence));
+        }
+
+        writer.startExample().startContext();
+        for (int i = 0; i < features.size(); ++i) {
+            writer.contextFeature(featureExtractors.get(i).name(), features.get(i));
+        }
+        writer.endContext().startFeatureLists();
+        int tokenExtractor = 0;
+        for (Extractor<FeatureList> featureListExtractor : featureListExtractors) {
+            writer.startFeatureList(featureListExtractor.name());
+            if (featureListExtractor instanceof TokenExtractor) {
+                TokenExtractor extractor = tokenExtractors[tokenExtractor];
+                for (String token : values.get(keyIndices[tokenExtractor++])) {
+                    extractor.writeToken(token, writer);
+                }
+            } else {
+                for (Feature feature : featureListExtractor.extract(sequence).getFeatureList()) {
+                    writer.feature(feature);
+                }
+            }
+            writer.endFeatureList();
+        }
+        writer.endFeatureLists().endExample();
+    }
+
+    private List<List<String>> readTokens(HasFields sequence) {
+        List<List<String>> values = new ArrayList<>(keys.length);
+        for (String key : keys) {
+            List<String> tokens = sequence.field(key);
+            if (null == tokens) {
+                throw new IllegalArgumentException(String.format("Missing field \"%s\" in input sequence", key));
+            }
+            values.add(tokens);
+        }
+        return values;
+    }
+
+    private FeatureList.Builder[] extractTokens(HasFields sequence) {
+        List<List<String>> values = readTokens(sequence);
+        int length = 0;
+        for (List<String> tokens : values) {
+            length = Math.max(length, tokens.size());
+        }
+
+        FeatureList.Builder[] builders = new FeatureList.Builder[tokenExtractors.length];
+        for (int i = 0; i < builders.length; ++i) {
+            builders[i] = FeatureList.newBuilder();
+        }
+        for (int index = 0; index < length; ++index) {
+            for (int i = 0; i < tokenExtractors.length; ++i) {
+                List<String> tokens = values.get(keyIndices[i]);
+                if (index < tokens.size()) {
+                    builders[i].addFeature(tokenExtractors[i].extractToken(tokens.get(index)));
+                }
+            }
+        }
+        return builders;
+    }
+
+    @Override
+    public Optional<Vocabulary> vocabulary(@NonNull String key) {
+        return Optional.ofNullable(vocabularyMap.get(key));
+    }
+
+}
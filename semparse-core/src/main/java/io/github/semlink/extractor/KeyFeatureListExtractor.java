@@ -26,6 +26,7 @@ import org.tensorflow.example.FeatureList;
 import java.util.List;
 
 import io.github.semlink.extractor.config.FeatureSpec;
+import io.github.semlink.tensor.SequenceExampleWriter;
 import io.github.semlink.type.HasFields;
 import lombok.experimental.Accessors;
 
@@ -35,7 +36,7 @@ import lombok.experimental.Accessors;
  * @author jgung
  */
 @Accessors(fluent = true)
-public class KeyFeatureListExtractor extends BaseFeatureExtractor<FeatureList> {
+public class KeyFeatureListExtractor extends BaseFeatureExtractor<FeatureList> implements TokenExtractor {
 
     public KeyFeatureListExtractor(FeatureSpec featureSpec, Vocabulary vocabulary) {
         super(featureSpec.name(), featureSpec.key(), vocabulary);
@@ -48,11 +49,22 @@ public class KeyFeatureListExtractor extends BaseFeatureExtractor<FeatureList> {
         if (null == values) {
             throw new IllegalArgumentException(String.format("Missing field \"%s\" in input sequence", key()));
         }
-        getValues(seq).stream()
-                .map(this::map)
-                .map(text -> Feature.newBuilder().setBytesList(BytesList.newBuilder().addValue(ByteString.copyFromUtf8(text))))
-                .forEach(builder::addFeature);
+        for (String token : values) {
+            builder.addFeature(extractToken(token));
+        }
         return builder.build();
     }
 
+    @Override
+    public Feature extractToken(String token) {
+        return Feature.newBuilder()
+                .setBytesList(BytesList.newBuilder().addValue(ByteString.copyFromUtf8(map(token))))
+                .build();
+    }
+
+    @Override
+    public void writeToken(String token, SequenceExampleWriter writer) {
+        writer.bytes(ByteString.copyFromUtf8(map(token)));
+    }
+
 }
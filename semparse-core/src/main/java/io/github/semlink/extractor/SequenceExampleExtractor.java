@@ -20,11 +20,12 @@ import org.tensorflow.example.SequenceExample;
 
 import java.util.Optional;
 
+import io.github.semlink.tensor.SequenceExampleWriter;
 import io.github.semlink.type.HasFields;
 import lombok.NonNull;
 
 /**
- * {@link SequenceExample extractor}
+ * {@link SequenceExample extractor}. Implementations must be thread-safe, as batches may be extracted in parallel.
  *
  * @author jamesgung
  */
@@ -38,6 +39,17 @@ public interface SequenceExampleExtractor {
      */
     SequenceExample extractSequence(@NonNull HasFields sequence);
 
+    /**
+     * Extract a sequence example and write it in serialized form. Byte-for-byte identical to serializing the result of
+     * {@link #extractSequence(HasFields)}; implementations may override this to avoid building the proto.
+     *
+     * @param sequence input sequence
+     * @param writer   serialized example writer
+     */
+    default void writeSequence(@NonNull HasFields sequence, @NonNull SequenceExampleWriter writer) {
+        writer.write(extractSequence(sequence));
+    }
+
     Optional<Vocabulary> vocabulary(@NonNull String key);
 
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.extractor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import lombok.NonNull;
+
+/**
+ * String normalization compiled from a list of mapping function names ({@code chars}, {@code lower} and {@code digit_norm}).
+ * ASCII input is normalized in a single pass over its characters, returning the input itself when nothing changes. Input
+ * with characters whose lower case depends on the locale or context falls back to applying each function in order.
+ *
+ * @author jgung
+ */
+public final class StringNormalizer implements Function<String, String> {
+
+    private static final String CHARS = "chars";
+    private static final String LOWER = "lower";
+    private static final String DIGIT_NORM = "digit_norm";
+
+    private static final Pattern DIGIT = Pattern.compile("\\d");
+
+    private final List<String> functions;
+    private final boolean lower;
+    private final boolean digits;
+    // ASCII upper case letters have plain ASCII lower case forms in the default locale (not the case for e.g. Turkish)
+    private final boolean asciiLower;
+
+    private StringNormalizer(List<String> functions) {
+        this.functions = new ArrayList<>(functions);
+        this.lower = functions.contains(LOWER);
+        this.digits = functions.contains(DIGIT_NORM);
+        this.asciiLower = "I".toLowerCase().equals("i");
+    }
+
+    /**
+     * Compile a list of mapping function names into a single normalizer.
+     *
+     * @param functions mapping function names, applied in order
+     * @return compiled normalizer
+     */
+    public static StringNormalizer compile(@NonNull List<String> functions) {
+        for (String function : functions) {
+            if (!CHARS.equals(function) && !LOWER.equals(function) && !DIGIT_NORM.equals(function)) {
+                throw new IllegalArgumentException("Unrecognized string function name: " + function);
+            }
+        }
+        return new StringNormalizer(functions);
+    }
+
+    @Override
+    public String apply(@NonNull String input) {
+        if (!lower && !digits) {
+            return input;
+        }
+        char[] result = null;
+        for (int i = 0; i < input.length(); ++i) {
+            char c = input.charAt(i);
+            char mapped = c;
+            if (lower && c >= 'A' && c <= 'Z') {
+                if (!asciiLower) {
+                    return applyInOrder(input);
+                }
+                mapped = (char) (c + ('a' - 'A'));
+            } else if (lower && c >= 0x80) {
+                return applyInOrder(input);
+            } else if (digits && c >= '0' && c <= '9') {
+                mapped = '#';
+            }
+            if (mapped != c) {
+                if (null == result) {
+                    result = input.toCharArray();
+                }
+                result[i] = mapped;
+            }
+        }
+        return null == result ? input : new String(result);
+    }
+
+    private String applyInOrder(String input) {
+        for (String function : functions) {
+            if (LOWER.equals(function)) {
+                input = input.toLowerCase(Locale.getDefault());
+            } else if (DIGIT_NORM.equals(function)) {
+                input = DIGIT.matcher(input).replaceAll("#");
+            }
+        }
+        return input;
+    }
+
+}
@@ -33,7 +33,7 @@ import lombok.experimental.Accessors;
  * @author jgung
  */
 @Accessors(fluent = true)
-public class TextExtractor extends KeyExtractor<FeatureList> {
+public class TextExtractor extends KeyExtractor<FeatureList> implements TokenExtractor {
 
     public TextExtractor(String name, String key) {
         super(name, key);
@@ -42,13 +42,19 @@ public class TextExtractor extends KeyExtractor<FeatureList> {
     @Override
     public FeatureList extract(HasFields seq) {
         FeatureList.Builder builder = FeatureList.newBuilder();
-        getValues(seq).stream()
-                .map(this::map)
-                .map(text -> Feature.newBuilder().setBytesList(BytesList.newBuilder().addValue(ByteString.copyFromUtf8(text))))
-                .forEach(builder::addFeature);
+        for (String token : getValues(seq)) {
+            builder.addFeature(extractToken(token));
+        }
         return builder.build();
     }
 
+    @Override
+    public Feature extractToken(String token) {
+        return Feature.newBuilder()
+                .setBytesList(BytesList.newBuilder().addValue(ByteString.copyFromUtf8(map(token))))
+                .build();
+    }
+
     private List<String> getValues(HasFields seq) {
         return seq.field(key);
     }
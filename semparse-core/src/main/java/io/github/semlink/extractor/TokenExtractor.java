@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.extractor;
+
+import org.tensorflow.example.Feature;
+import org.tensorflow.example.FeatureList;
+
+import io.github.semlink.tensor.SequenceExampleWriter;
+
+/**
+ * Feature list extractor producing one feature per token of a list-valued input field, independently of other tokens.
+ *
+ * @author jgung
+ */
+public interface TokenExtractor extends Extractor<FeatureList> {
+
+    /**
+     * Key of the input field containing tokens.
+     */
+    String key();
+
+    /**
+     * Extract the feature for a single token.
+     *
+     * @param token input token
+     * @return extracted feature
+     */
+    Feature extractToken(String token);
+
+    /**
+     * Write the feature for a single token to the current feature list of a writer. Byte-for-byte identical to writing the
+     * result of {@link #extractToken(String)}; implementations may override this to avoid building the proto.
+     *
+     * @param token  input token
+     * @param writer serialized example writer
+     */
+    default void writeToken(String token, SequenceExampleWriter writer) {
+        writer.feature(extractToken(token));
+    }
+
+}
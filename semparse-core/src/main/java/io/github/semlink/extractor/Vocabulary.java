@@ -16,21 +16,22 @@
 
 package io.github.semlink.extractor;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.ImmutableBiMap;
-
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.HashMap;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import io.github.semlink.util.StringIndex;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Feature vocabulary.
+ * Feature vocabulary, backed by a {@link StringIndex}. Vocabularies read from the same file share a single index.
+ * Immutable and thread-safe.
  *
  * @author jgung
  */
@@ -42,29 +43,58 @@ public class Vocabulary {
     public static final String START_WORD = "<BOS>";
     public static final String END_WORD = "<EOS>";
 
-    private BiMap<String, Integer> featureIndexMap;
+    private StringIndex index;
     private int oov;
 
-    public Vocabulary(Map<String, Integer> featureIndexMap, String oov) {
-        this.featureIndexMap = ImmutableBiMap.copyOf(featureIndexMap);
-        if (!this.featureIndexMap.containsKey(oov)) {
+    public Vocabulary(StringIndex index, String oov) {
+        this.index = index;
+        int oovIndex = index.get(oov);
+        if (oovIndex < 0) {
             log.warn("OOV feature \"{}\" not found in vocabulary.", oov);
             this.oov = 0;
         } else {
-            this.oov = this.featureIndexMap.get(oov);
+            this.oov = oovIndex;
         }
     }
 
+    public Vocabulary(Map<String, Integer> featureIndexMap, String oov) {
+        this(StringIndex.of(featureIndexMap), oov);
+    }
+
     public int featToIndex(String feature) {
-        return featureIndexMap.getOrDefault(feature, oov);
+        int index = null == feature ? -1 : this.index.get(feature);
+        return index < 0 ? oov : index;
     }
 
     public String indexToFeat(int index) {
-        return featureIndexMap.inverse().get(index);
+        return index < 0 || index >= this.index.size() ? null : this.index.get(index);
     }
 
     public static Vocabulary read(InputStream inputStream, String oov) {
-        Map<String, Integer> featureIndexMap = new HashMap<>();
+        return new Vocabulary(readIndex(inputStream), oov);
+    }
+
+    /**
+     * Read a vocabulary with one feature per line, or memory-map a prebuilt {@link StringIndex} if the path ends with
+     * {@link StringIndex#EXTENSION}.
+     */
+    public static Vocabulary read(String path, String oov) {
+        return new Vocabulary(StringIndex.shared("features", path, Vocabulary::readIndex), oov);
+    }
+
+    private static StringIndex readIndex(String path) {
+        if (path.endsWith(StringIndex.EXTENSION)) {
+            return StringIndex.map(Paths.get(path));
+        }
+        try (FileInputStream fileInputStream = new FileInputStream(path)) {
+            return readIndex(fileInputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to load feature vocabulary from file at " + path, e);
+        }
+    }
+
+    private static StringIndex readIndex(InputStream inputStream) {
+        List<String> features = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -72,23 +102,13 @@ public class Vocabulary {
                 if (line.isEmpty()) {
                     continue;
                 }
-                if (featureIndexMap.containsKey(line)) {
-                    throw new IllegalStateException("Duplicate key found in vocabulary: " + line);
-                }
-                featureIndexMap.put(line, featureIndexMap.size());
+                features.add(line);
             }
         } catch (IOException e) {
             throw new RuntimeException("Unable to load feature vocabulary", e);
         }
-        return new Vocabulary(featureIndexMap, oov);
-    }
-
-    public static Vocabulary read(String path, String oov) {
-        try (FileInputStream fileInputStream = new FileInputStream(path)) {
-            return Vocabulary.read(fileInputStream, oov);
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to load feature vocabulary from file at " + path, e);
-        }
+        // throws on duplicate features
+        return StringIndex.of(features);
     }
 
 }
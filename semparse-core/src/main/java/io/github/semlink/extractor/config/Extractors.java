@@ -22,25 +22,26 @@ import org.tensorflow.example.FeatureList;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import io.github.semlink.extractor.CharacterFeatureExtractor;
 import io.github.semlink.extractor.ConstantFeatureExtractor;
-import io.github.semlink.extractor.DefaultSequenceExampleExtractor;
+import io.github.semlink.extractor.ExtractionPlan;
 import io.github.semlink.extractor.Extractor;
 import io.github.semlink.extractor.KeyFeatureListExtractor;
 import io.github.semlink.extractor.LengthExtractor;
 import io.github.semlink.extractor.ScalarExtractor;
 import io.github.semlink.extractor.SequenceExampleExtractor;
+import io.github.semlink.extractor.StringNormalizer;
 import io.github.semlink.extractor.TextExtractor;
 import io.github.semlink.extractor.Vocabulary;
 
 /**
- * Extractor factory.
+ * Extractor factory, compiling extractor configurations into {@link ExtractionPlan extraction plans}.
  *
  * @author jgung
  */
@@ -63,7 +64,7 @@ public final class Extractors {
         featureExtractors.add(new ConstantFeatureExtractor("sentence_idx", 0));
         featureExtractors.add(new LengthExtractor(extractorSpec.seqFeat()));
 
-        return new DefaultSequenceExampleExtractor(featureListExtractors, featureExtractors, vocabularyMap);
+        return new ExtractionPlan(featureListExtractors, featureExtractors, vocabularyMap);
     }
 
     private static void extractFeatures(List<FeatureSpec> features,
@@ -73,9 +74,8 @@ public final class Extractors {
                                         String vocabPath) {
         for (FeatureSpec feature : features) {
 
-            List<Function<String, String>> stringFunctions = feature.mappingFuncs().stream()
-                    .map(Extractors::getStringFunction)
-                    .collect(Collectors.toList());
+            List<Function<String, String>> stringFunctions =
+                    Collections.singletonList(StringNormalizer.compile(feature.mappingFuncs()));
 
             if (feature.name().equals("elmo")) {
                 featureListExtractors.add(new TextExtractor(feature.name(), feature.key())
@@ -105,17 +105,4 @@ public final class Extractors {
             }
         }
     }
-
-    private static Function<String, String> getStringFunction(String functionName) {
-        switch (functionName) {
-            case "chars":
-                return Function.identity();
-            case "lower":
-                return String::toLowerCase;
-            case "digit_norm":
-                return s -> s.replaceAll("\\d", "#");
-            default:
-                throw new IllegalArgumentException("Unrecognized string function name: " + functionName);
-        }
-    }
 }
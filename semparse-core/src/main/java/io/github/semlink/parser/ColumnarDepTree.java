@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.parser;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+/**
+ * Read-only columnar view of a {@link DepTree}, built once per sentence. Text, lemma, POS and dependency label features are
+ * interned into a per-tree symbol table and stored as int ID arrays, heads as an array of token indices, and children as
+ * offsets into a single array of token indices (in sentence order). Reading a feature is an array access rather than a
+ * feature map lookup and cast.
+ * <p>
+ * The view is a snapshot: changes to the features of the underlying tree's nodes after it is built are not reflected.
+ *
+ * @author jgung
+ */
+@Accessors(fluent = true)
+public final class ColumnarDepTree {
+
+    public static final int NO_HEAD = -1;
+    public static final int NO_SYMBOL = -1;
+
+    /**
+     * Underlying dependency tree.
+     */
+    @Getter
+    private final DepTree tree;
+
+    private final String[] symbols;
+    private final Map<String, Integer> symbolIds;
+
+    private final int[] textIds;
+    private final int[] lemmaIds;
+    private final int[] posIds;
+    private final int[] depIds;
+    private final int[] heads;
+    // children of token i are children[childOffsets[i]] to children[childOffsets[i + 1] - 1]
+    private final int[] childOffsets;
+    private final int[] children;
+
+    private final List<String> words;
+
+    private ColumnarDepTree(DepTree tree) {
+        this.tree = tree;
+        List<DepNode> nodes = tree.tokens();
+        int size = nodes.size();
+        List<String> symbolList = new ArrayList<>();
+        symbolIds = new HashMap<>();
+        textIds = new int[size];
+        lemmaIds = new int[size];
+        posIds = new int[size];
+        depIds = new int[size];
+        heads = new int[size];
+        childOffsets = new int[size + 1];
+        for (int i = 0; i < size; ++i) {
+            DepNode node = nodes.get(i);
+            textIds[i] = intern(node.feature(FeatureType.Text), symbolList);
+            lemmaIds[i] = intern(node.feature(FeatureType.Lemma), symbolList);
+            posIds[i] = intern(node.feature(FeatureType.Pos), symbolList);
+            depIds[i] = intern(node.feature(FeatureType.Dep), symbolList);
+            heads[i] = node.isRoot() || null == node.head() ? NO_HEAD : node.head().index();
+            if (heads[i] != NO_HEAD) {
+                ++childOffsets[heads[i] + 1];
+            }
+        }
+        symbols = symbolList.toArray(new String[0]);
+
+        for (int i = 0; i < size; ++i) {
+            childOffsets[i + 1] += childOffsets[i];
+        }
+        children = new int[childOffsets[size]];
+        int[] next = new int[size];
+        for (int i = 0; i < size; ++i) {
+            if (heads[i] != NO_HEAD) {
+                children[childOffsets[heads[i]] + next[heads[i]]++] = i;
+            }
+        }
+        words = new Column(textIds);
+    }
+
+    private int intern(Object feature, List<String> symbolList) {
+        if (null == feature) {
+            return NO_SYMBOL;
+        }
+        String symbol = feature.toString();
+        Integer id = symbolIds.get(symbol);
+        if (null == id) {
+            id = symbolList.size();
+            symbolList.add(symbol);
+            symbolIds.put(symbol, id);
+        }
+        return id;
+    }
+
+    /**
+     * Build a columnar view of a given dependency tree.
+     *
+     * @param tree dependency tree
+     * @return columnar view
+     */
+    public static ColumnarDepTree of(@NonNull DepTree tree) {
+        return new ColumnarDepTree(tree);
+    }
+
+    /**
+     * Number of tokens.
+     */
+    public int size() {
+        return heads.length;
+    }
+
+    /**
+     * ID of a given string in this tree's symbol table, or {@link #NO_SYMBOL} if no token has it as a feature.
+     */
+    public int symbolId(@NonNull String symbol) {
+        Integer id = symbolIds.get(symbol);
+        return null == id ? NO_SYMBOL : id;
+    }
+
+    /**
+     * String for a given symbol ID, or null for {@link #NO_SYMBOL}.
+     */
+    public String symbol(int id) {
+        return id == NO_SYMBOL ? null : symbols[id];
+    }
+
+    public int textId(int index) {
+        return textIds[index];
+    }
+
+    public int lemmaId(int index) {
+        return lemmaIds[index];
+    }
+
+    public int posId(int index) {
+        return posIds[index];
+    }
+
+    public int depId(int index) {
+        return depIds[index];
+    }
+
+    public String text(int index) {
+        return symbol(textIds[index]);
+    }
+
+    public String lemma(int index) {
+        return symbol(lemmaIds[index]);
+    }
+
+    public String pos(int index) {
+        return symbol(posIds[index]);
+    }
+
+    public String dep(int index) {
+        return symbol(depIds[index]);
+    }
+
+    /**
+     * Index of the head of a given token, or {@link #NO_HEAD} for the root.
+     */
+    public int head(int index) {
+        return heads[index];
+    }
+
+    public boolean isRoot(int index) {
+        return heads[index] == NO_HEAD;
+    }
+
+    /**
+     * Number of children of a given token.
+     */
+    public int childCount(int index) {
+        return childOffsets[index + 1] - childOffsets[index];
+    }
+
+    /**
+     * Index of the {@code k}th child (in sentence order) of a given token.
+     */
+    public int child(int index, int k) {
+        Preconditions.checkElementIndex(k, childCount(index));
+        return children[childOffsets[index] + k];
+    }
+
+    /**
+     * Index of the head of a phrase: the first token that is the root, or whose head is outside the phrase, else the first
+     * token.
+     *
+     * @param start start token index
+     * @param end   end token index (inclusive)
+     * @return head token index
+     */
+    public int phraseHead(int start, int end) {
+        for (int i = start; i <= end; ++i) {
+            if (heads[i] == NO_HEAD || heads[i] < start || heads[i] > end) {
+                return i;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Read-only list of token text, backed by this view.
+     */
+    public List<String> words() {
+        return words;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" ", words);
+    }
+
+    /**
+     * Read-only list of the symbols of a column of IDs.
+     */
+    private final class Column extends AbstractList<String> implements RandomAccess {
+
+        private final int[] ids;
+
+        private Column(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public String get(int index) {
+            return symbol(ids[index]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+
+    }
+
+}
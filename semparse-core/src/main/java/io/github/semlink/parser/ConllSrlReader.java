@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.github.semlink.app.IndexedChunking;
+import io.github.semlink.app.Span;
+import io.github.semlink.propbank.type.ArgNumber;
+import io.github.semlink.propbank.type.PropBankArg;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reader for PropBank semantic role labels in CoNLL bracketed column format, e.g. CoNLL-2012 files or the output of an
+ * upstream SRL system. Defaults correspond to the CoNLL-2012 column layout.
+ *
+ * @author jgung
+ */
+@Slf4j
+@Getter
+@Setter
+@Accessors(fluent = true)
+public class ConllSrlReader {
+
+    /**
+     * Column containing word forms.
+     */
+    private int wordColumn = 3;
+    /**
+     * Column containing arguments of the first predicate in the sentence.
+     */
+    private int firstArgColumn = 11;
+    /**
+     * Number of columns following the last argument column (e.g. coreference in CoNLL-2012).
+     */
+    private int trailingColumns = 1;
+
+    /**
+     * Lazily read sentences from a given reader. The reader is not closed by the returned stream.
+     *
+     * @param reader CoNLL-formatted input
+     * @return stream of sentences with their PropBank propositions
+     */
+    public Stream<SrlSentence> read(@NonNull BufferedReader reader) {
+        Iterator<SrlSentence> iterator = new Iterator<SrlSentence>() {
+
+            private SrlSentence next = readSentence(reader);
+
+            @Override
+            public boolean hasNext() {
+                return null != next;
+            }
+
+            @Override
+            public SrlSentence next() {
+                if (null == next) {
+                    throw new NoSuchElementException();
+                }
+                SrlSentence result = next;
+                next = readSentence(reader);
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private SrlSentence readSentence(BufferedReader reader) {
+        List<String[]> rows = new ArrayList<>();
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    if (!rows.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                if (line.startsWith("#")) {
+                    continue;
+                }
+                rows.add(line.split("\\s+"));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read CoNLL input", e);
+        }
+        if (rows.isEmpty()) {
+            return null;
+        }
+        return toSentence(rows);
+    }
+
+    private SrlSentence toSentence(List<String[]> rows) {
+        List<String> tokens = rows.stream()
+                .map(row -> row[wordColumn])
+                .collect(Collectors.toList());
+
+        List<Proposition<String, PropBankArg>> props = new ArrayList<>();
+        int lastArgColumn = rows.get(0).length - trailingColumns;
+        for (int column = firstArgColumn; column < lastArgColumn; ++column) {
+            List<Span<PropBankArg>> spans = readSpans(rows, column);
+            spans.stream()
+                    .filter(span -> span.label().getNumber() == ArgNumber.V)
+                    .findFirst()
+                    .ifPresent(rel -> props.add(new Proposition<>(rel.startIndex(), tokens.get(rel.startIndex()),
+                            IndexedChunking.of(spans))));
+        }
+        return new SrlSentence(tokens, props);
+    }
+
+    private static List<Span<PropBankArg>> readSpans(List<String[]> rows, int column) {
+        List<Span<PropBankArg>> spans = new ArrayList<>();
+        String label = null;
+        int start = -1;
+        for (int index = 0; index < rows.size(); ++index) {
+            String tag = rows.get(index)[column];
+            int open = tag.indexOf('(');
+            if (open >= 0) {
+                int end = tag.indexOf('*', open);
+                label = tag.substring(open + 1, end < 0 ? tag.length() - 1 : end);
+                start = index;
+            }
+            if (tag.endsWith(")") && null != label) {
+                try {
+                    spans.add(new Span<>(PropBankArg.fromLabel(label), start, index));
+                } catch (IllegalArgumentException e) {
+                    log.debug("Skipping unrecognized argument label: {}", label);
+                }
+                label = null;
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * Tokenized sentence with PropBank propositions, using the predicate's word form as the relation.
+     */
+    @Getter
+    @Accessors(fluent = true)
+    @AllArgsConstructor
+    public static class SrlSentence {
+
+        private final List<String> tokens;
+        private final List<Proposition<String, PropBankArg>> propositions;
+
+    }
+
+}
@@ -21,16 +21,18 @@ import com.google.common.base.Preconditions;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import io.github.clearwsd.type.DefaultNlpFocus;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.NlpFocus;
 import io.github.semlink.app.Chunking;
-import io.github.semlink.app.ShallowParser;
+import io.github.semlink.app.IShallowParser;
 import io.github.semlink.app.ShallowParserUtils;
+import io.github.semlink.type.IToken;
 import io.github.semlink.type.ITokenSequence;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
@@ -43,9 +45,12 @@ import lombok.NonNull;
 @AllArgsConstructor
 public class DefaultSemanticRoleLabeler<A> implements SemanticRoleLabeler<A> {
 
-    private ShallowParser shallowParser;
+    @NonNull
+    private IShallowParser<IToken, ITokenSequence> shallowParser;
+    @NonNull
     private Function<String, A> argMapper;
-    private Function<NlpFocus<DepNode, DepTree>, ITokenSequence> inputAdapter;
+    @NonNull
+    private PredicateInputAdapter inputAdapter;
 
     /**
      * Initialize a semantic role labeler that maps output of a shallow parser to a given argument type using a provided mapping
@@ -54,8 +59,22 @@ public class DefaultSemanticRoleLabeler<A> implements SemanticRoleLabeler<A> {
      * @param shallowParser base shallow parser, which produces string labels irrespective of the argument type
      * @param argMapper     function mapping labels output by the shallow parser onto the correct argument type
      */
-    public DefaultSemanticRoleLabeler(@NonNull ShallowParser shallowParser, @NonNull Function<String, A> argMapper) {
-        this(shallowParser, argMapper, RoleLabelerUtils::focus2Sequence);
+    public DefaultSemanticRoleLabeler(@NonNull IShallowParser<IToken, ITokenSequence> shallowParser,
+                                      @NonNull Function<String, A> argMapper) {
+        this(shallowParser, argMapper, RoleLabelerUtils::predicateSequence);
+    }
+
+    /**
+     * Initialize a semantic role labeler with a given function mapping each predicate of a tree to an input sequence.
+     *
+     * @param shallowParser base shallow parser, which produces string labels irrespective of the argument type
+     * @param argMapper     function mapping labels output by the shallow parser onto the correct argument type
+     * @param inputAdapter  function mapping a tree focused on a predicate to an input sequence for the shallow parser
+     */
+    public DefaultSemanticRoleLabeler(@NonNull IShallowParser<IToken, ITokenSequence> shallowParser,
+                                      @NonNull Function<String, A> argMapper,
+                                      @NonNull Function<NlpFocus<DepNode, DepTree>, ITokenSequence> inputAdapter) {
+        this(shallowParser, argMapper, PredicateInputAdapter.of(inputAdapter));
     }
 
     @Override
@@ -63,15 +82,36 @@ public class DefaultSemanticRoleLabeler<A> implements SemanticRoleLabeler<A> {
         if (indices.isEmpty()) {
             return Collections.emptyList();
         }
+        return propositions(tree, indices, shallowParser.shallowParseBatch(features(tree, indices)));
+    }
+
+    /**
+     * Asynchronously label propositions, delegating to {@link IShallowParser#shallowParseBatchAsync(List, Executor)} so that
+     * non-blocking shallow parsers (e.g. micro-batching ones) do not tie up an executor thread.
+     */
+    @Override
+    public CompletableFuture<List<Proposition<DepNode, A>>> parseAsync(@NonNull DepTree tree,
+                                                                       @NonNull List<Integer> indices,
+                                                                       @NonNull Executor executor) {
+        if (indices.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        return CompletableFuture.supplyAsync(() -> features(tree, indices), executor)
+                .thenCompose(features -> shallowParser.shallowParseBatchAsync(features, executor))
+                .thenApply(chunkings -> propositions(tree, indices, chunkings));
+    }
 
+    private List<ITokenSequence> features(DepTree tree, List<Integer> indices) {
         // (1) map dependency parse tree to an input sequence of features given each predicate
-        List<ITokenSequence> featsGivenPredicate = indices.stream()
-                .map(predicate -> new DefaultNlpFocus<>(predicate, tree.get(predicate), tree))
-                .map(inputAdapter)
+        ColumnarDepTree columns = ColumnarDepTree.of(tree);
+        return indices.stream()
+                .map(predicate -> inputAdapter.adapt(columns, predicate))
                 .collect(Collectors.toList());
+    }
 
-        // (2) apply shallow parser to feature inputs as a single batch
-        List<Chunking<A>> chunkings = shallowParser.shallowParseBatch(featsGivenPredicate).stream()
+    private List<Proposition<DepNode, A>> propositions(DepTree tree, List<Integer> indices, List<Chunking<String>> parsed) {
+        // (2) map labels output by the shallow parser to arguments
+        List<Chunking<A>> chunkings = parsed.stream()
                 .map(chunks -> ShallowParserUtils.mapChunks(chunks, argMapper))
                 .collect(Collectors.toList());
         Preconditions.checkState(chunkings.size() == indices.size());
@@ -16,46 +16,52 @@
 
 package io.github.semlink.parser;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.regex.Pattern;
 
 import io.github.semlink.util.StringUtils;
 import lombok.NonNull;
 
 /**
- * Default {@link SentenceNormalizer} implementation.
+ * Default {@link SentenceNormalizer} implementation. Sentences are capitalized, given final punctuation if missing, and have
+ * contractions and informal words expanded.
+ * <p>
+ * Expansion is a single scan rewriting the sentence into a reused buffer, with the same output as these case-insensitive regex
+ * replacements applied in order, each to the result of the previous one:
+ * <ol>
+ * <li>{@code (is|are|was|were|have|has|had|does|did|do|ca|could|might|must|should|would|need) ?n'?t\b} to {@code $1 not}</li>
+ * <li>{@code (\S+) ?'ve\b} to {@code $1 have}, then likewise for 're (are), 'll (will), 'd (would) and 'm (am)</li>
+ * <li>{@code \bcannot\b} to {@code can not}, then likewise for wanna, lemme, gotta, gonna, dunno and gimme</li>
+ * </ol>
+ * No rule creates or removes text matched by another, so rules only interact through the spaces they insert. As {@code \S+}
+ * stops at whitespace and is greedy, each apostrophe rule expands only the last of its contractions in a whitespace-delimited
+ * run, and a space inserted by an earlier rule splits the run for later rules. The scanner records candidate rewrites for each
+ * run, then resolves apostrophe rules in order over the run's splits. Word boundaries follow {@code java.util.regex}, treating
+ * letters, digits, underscores and non-spacing marks following a letter or digit as word characters. Rules
+ * {@code \bwo\b(?=not)} and {@code \bca\b(?=not)} are omitted, as a word boundary never precedes a following "not".
  *
  * @author jgung
  */
 public class DefaultSentenceNormalizer implements SentenceNormalizer {
 
+    // auxiliaries negated by a following "n't" or "nt", in the order they are tried
+    private static final String[] AUXILIARIES = {"is", "are", "was", "were", "have", "has", "had", "does", "did", "do", "ca",
+            "could", "might", "must", "should", "would", "need"};
+    // contractions following an apostrophe, in the order they are expanded
+    private static final String[] CONTRACTIONS = {"ve", "re", "ll", "d", "m"};
+    private static final String[] CONTRACTION_EXPANSIONS = {"have", "are", "will", "would", "am"};
+    private static final String[] WORDS = {"cannot", "wanna", "lemme", "gotta", "gonna", "dunno", "gimme"};
+    private static final String[] WORD_EXPANSIONS = {"can not", "want to", "let me", "got to", "going to", "do not know",
+            "give me"};
+
+    // rewriting state reused across sentences normalized on the same thread
+    private static final ThreadLocal<Rewriter> REWRITER = ThreadLocal.withInitial(Rewriter::new);
+
     private Pattern punctuationPattern = Pattern.compile("\\p{Punct}$");
     private Pattern questionPattern = Pattern.compile(
             "^(can|could|do|does|how|may|might|must|should|to whom|was|what|when|where|which|who|why|will|would)\\b",
             Pattern.CASE_INSENSITIVE);
 
-    private Map<Pattern, String> contractions = new LinkedHashMap<Pattern, String>() {
-        {
-            put(Pattern.compile("(is|are|was|were|have|has|had|does|did|do|ca|could|might|must|should|would|need) ?n'?t\\b",
-                    Pattern.CASE_INSENSITIVE), "$1 not");
-            put(Pattern.compile("(\\S+) ?'ve\\b", Pattern.CASE_INSENSITIVE), "$1 have");
-            put(Pattern.compile("(\\S+) ?'re\\b", Pattern.CASE_INSENSITIVE), "$1 are");
-            put(Pattern.compile("(\\S+) ?'ll\\b", Pattern.CASE_INSENSITIVE), "$1 will");
-            put(Pattern.compile("(\\S+) ?'d\\b", Pattern.CASE_INSENSITIVE), "$1 would");
-            put(Pattern.compile("(\\S+) ?'m\\b", Pattern.CASE_INSENSITIVE), "$1 am");
-            put(Pattern.compile("\\bcannot\\b", Pattern.CASE_INSENSITIVE), "can not");
-            put(Pattern.compile("\\bwanna\\b", Pattern.CASE_INSENSITIVE), "want to");
-            put(Pattern.compile("\\blemme\\b", Pattern.CASE_INSENSITIVE), "let me");
-            put(Pattern.compile("\\bgotta\\b", Pattern.CASE_INSENSITIVE), "got to");
-            put(Pattern.compile("\\bgonna\\b", Pattern.CASE_INSENSITIVE), "going to");
-            put(Pattern.compile("\\bdunno\\b", Pattern.CASE_INSENSITIVE), "do not know");
-            put(Pattern.compile("\\bgimme\\b", Pattern.CASE_INSENSITIVE), "give me");
-            put(Pattern.compile("\\bwo\\b(?=not)", Pattern.CASE_INSENSITIVE), "will");
-            put(Pattern.compile("\\bca\\b(?=not)", Pattern.CASE_INSENSITIVE), "can");
-        }
-    };
-
     @Override
     public String normalize(@NonNull String sentence) {
         String result = sentence.trim();
@@ -71,16 +77,272 @@ public class DefaultSentenceNormalizer implements SentenceNormalizer {
             result = result + (possibleQuestion ? "?" : ".");
         }
 
-        result = normalizeContractions(result);
+        return REWRITER.get().rewrite(result);
+    }
+
+    /**
+     * Single-pass contraction rewriter. Rewrites are recorded in order of position as parallel arrays, and expanded into a
+     * buffer once the whole sentence has been scanned. Not thread-safe.
+     */
+    private static final class Rewriter {
+
+        // kinds of rewrite
+        private static final int NEGATION = 0;
+        private static final int CONTRACTION = 1;
+        private static final int WORD = 2;
+
+        // states of contraction rewrites
+        private static final int KEPT = 0;
+        private static final int EXPANDED = 1;
+        // expanded by the last segment of the previous run, through the single space separating them
+        private static final int EXPANDED_AFTER_SPACE = 2;
+
+        private final StringBuilder buffer = new StringBuilder();
+        private int[] kinds = new int[16];
+        // auxiliary, contraction or word index
+        private int[] indices = new int[16];
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int[] states = new int[16];
+        private int size;
+
+        private String rewrite(String text) {
+            size = 0;
+            int length = text.length();
+            // negations are matched left to right without overlapping
+            int negationEnd = 0;
+            // contraction at the start of the current run, expanded by the previous run, or -1
+            int expandedAfterSpace = -1;
+            int runStart = 0;
+            while (runStart < length) {
+                if (isSpace(text.charAt(runStart))) {
+                    ++runStart;
+                    continue;
+                }
+                int runEnd = runStart;
+                while (runEnd < length && !isSpace(text.charAt(runEnd))) {
+                    ++runEnd;
+                }
+
+                int first = size;
+                for (int i = runStart; i < runEnd; ++i) {
+                    int contraction = contraction(text, i);
+                    if (contraction >= 0) {
+                        add(CONTRACTION, contraction, i, i + 1 + CONTRACTIONS[contraction].length());
+                        continue;
+                    }
+                    if (i >= negationEnd) {
+                        for (int auxiliary = 0; auxiliary < AUXILIARIES.length; ++auxiliary) {
+                            int start = i + AUXILIARIES[auxiliary].length();
+                            int end = matches(text, i, AUXILIARIES[auxiliary]) ? negationEnd(text, start) : -1;
+                            if (end >= 0) {
+                                add(NEGATION, auxiliary, start, end);
+                                negationEnd = end;
+                                break;
+                            }
+                        }
+                    }
+                    if (!isWordBefore(text, i)) {
+                        for (int word = 0; word < WORDS.length; ++word) {
+                            int end = i + WORDS[word].length();
+                            if (matches(text, i, WORDS[word]) && !isWordAt(text, end)) {
+                                add(WORD, word, i, end);
+                                break;
+                            }
+                        }
+                    }
+                }
+
+                if (expandedAfterSpace >= 0) {
+                    states[first] = EXPANDED_AFTER_SPACE;
+                }
+                // a contraction starting the next run, after a single space, is reachable from the end of this run
+                int next = runEnd + 1 < length && text.charAt(runEnd) == ' ' ? contraction(text, runEnd + 1) : -1;
+                expandedAfterSpace = expandContractions(text, first, runStart, runEnd, expandedAfterSpace, next);
+                runStart = runEnd;
+            }
+
+            buffer.setLength(0);
+            int position = 0;
+            for (int i = 0; i < size; ++i) {
+                if (kinds[i] == CONTRACTION && states[i] == KEPT) {
+                    continue;
+                }
+                buffer.append(text, position, starts[i]);
+                if (kinds[i] == NEGATION) {
+                    buffer.append(" not");
+                } else if (kinds[i] == CONTRACTION) {
+                    buffer.append(states[i] == EXPANDED ? " " : "").append(CONTRACTION_EXPANSIONS[indices[i]]);
+                } else {
+                    buffer.append(WORD_EXPANSIONS[indices[i]]);
+                }
+                position = ends[i];
+            }
+            return buffer.append(text, position, length).toString();
+        }
+
+        /**
+         * Apply each apostrophe rule in order to the segments of a run, i.e. the parts between spaces inserted by negations and
+         * earlier apostrophe rules, expanding the last matching contraction preceded by at least one character of its segment.
+         * The last segment instead expands a matching contraction starting the next run, if there is one.
+         *
+         * @param first              first rewrite of the run
+         * @param expandedAfterSpace contraction starting this run already expanded by the previous run, or -1
+         * @param next               contraction starting the next run after a single space, or -1
+         * @return contraction starting the next run expanded by this run, or -1
+         */
+        private int expandContractions(String text, int first, int runStart, int runEnd, int expandedAfterSpace, int next) {
+            int expandedNext = -1;
+            for (int contraction = 0; contraction < CONTRACTIONS.length; ++contraction) {
+                int segmentStart = contraction == expandedAfterSpace ? ends[first] : runStart;
+                int last = -1;
+                for (int i = first; i < size; ++i) {
+                    if (splits(text, i)) {
+                        expand(last);
+                        last = -1;
+                        segmentStart = starts[i];
+                    } else if (kinds[i] == CONTRACTION && indices[i] == contraction && states[i] == KEPT
+                            && starts[i] > segmentStart) {
+                        last = i;
+                    }
+                }
+                if (contraction == next && segmentStart < runEnd) {
+                    expandedNext = next;
+                } else {
+                    expand(last);
+                }
+            }
+            return expandedNext;
+        }
+
+        /**
+         * Whether a rewrite inserts a space into its run, i.e. is a negation not preceded by a space or an expanded contraction.
+         */
+        private boolean splits(String text, int rewrite) {
+            return kinds[rewrite] == NEGATION ? text.charAt(starts[rewrite]) != ' '
+                    : kinds[rewrite] == CONTRACTION && states[rewrite] == EXPANDED;
+        }
+
+        private void expand(int rewrite) {
+            if (rewrite >= 0) {
+                states[rewrite] = EXPANDED;
+            }
+        }
+
+        private void add(int kind, int index, int start, int end) {
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, 2 * size);
+                indices = Arrays.copyOf(indices, 2 * size);
+                starts = Arrays.copyOf(starts, 2 * size);
+                ends = Arrays.copyOf(ends, 2 * size);
+                states = Arrays.copyOf(states, 2 * size);
+            }
+            kinds[size] = kind;
+            indices[size] = index;
+            starts[size] = start;
+            ends[size] = end;
+            states[size++] = KEPT;
+        }
 
-        return result;
     }
 
-    private String normalizeContractions(String sentence) {
-        for (Map.Entry<Pattern, String> entry : contractions.entrySet()) {
-            sentence = entry.getKey().matcher(sentence).replaceAll(entry.getValue());
+    /**
+     * Index of the contraction following an apostrophe at a given position, or -1.
+     */
+    private static int contraction(String text, int index) {
+        if (text.charAt(index) != '\'') {
+            return -1;
         }
-        return sentence;
+        for (int contraction = 0; contraction < CONTRACTIONS.length; ++contraction) {
+            int end = index + 1 + CONTRACTIONS[contraction].length();
+            if (matches(text, index + 1, CONTRACTIONS[contraction]) && !isWordAt(text, end)) {
+                return contraction;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * End of {@code ?n'?t\b} at a given position, or -1 if it does not match.
+     */
+    private static int negationEnd(String text, int index) {
+        if (index < text.length() && text.charAt(index) == ' ') {
+            ++index;
+        }
+        if (!matches(text, index, "n")) {
+            return -1;
+        }
+        ++index;
+        if (index < text.length() && text.charAt(index) == '\'') {
+            ++index;
+        }
+        if (!matches(text, index, "t") || isWordAt(text, index + 1)) {
+            return -1;
+        }
+        return index + 1;
+    }
+
+    /**
+     * Whether text at a given position matches a lower case ASCII literal, ignoring ASCII case.
+     */
+    private static boolean matches(String text, int index, String literal) {
+        if (text.length() - index < literal.length()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); ++i) {
+            char c = text.charAt(index + i);
+            if ((c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWordAt(String text, int index) {
+        if (index >= text.length()) {
+            return false;
+        }
+        int codePoint = text.codePointAt(index);
+        return isWord(codePoint) || isMark(codePoint) && hasBaseCharacter(text, index);
+    }
+
+    private static boolean isWordBefore(String text, int index) {
+        if (index <= 0) {
+            return false;
+        }
+        int codePoint = text.codePointBefore(index);
+        return isWord(codePoint) || isMark(codePoint) && hasBaseCharacter(text, index - 1);
+    }
+
+    private static boolean isWord(int codePoint) {
+        return codePoint == '_' || Character.isLetterOrDigit(codePoint);
+    }
+
+    private static boolean isMark(int codePoint) {
+        return Character.getType(codePoint) == Character.NON_SPACING_MARK;
+    }
+
+    /**
+     * Whether the marks ending at a given position follow a letter or digit, as for a word boundary in {@code java.util.regex}.
+     */
+    private static boolean hasBaseCharacter(String text, int index) {
+        for (int i = index; i >= 0; --i) {
+            int codePoint = text.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                return true;
+            }
+            if (!isMark(codePoint)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a character is whitespace in the sense of regex {@code \s}.
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
 }
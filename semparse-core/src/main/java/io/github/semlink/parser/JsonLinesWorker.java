@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.parser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Preconditions;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Long-lived worker reading newline-delimited JSON requests and writing one JSON result per line, so that a single warm
+ * {@link VerbNetParser} can serve many requests from another process. Requests take one of the forms
+ * <pre>
+ * {"id": "1", "sentence": "John ate an apple."}
+ * {"id": "2", "sentences": ["John ate an apple.", "Mary slept."]}
+ * {"id": "3", "command": "shutdown"}
+ * </pre>
+ * and are answered by {@code {"id": "1", "parse": {...}}}, {@code {"id": "2", "parses": [...]}} or
+ * {@code {"id": "1", "error": "..."}}, the latter also for missing or non-string sentences. Up to {@code maxInFlight}
+ * requests are processed concurrently, so responses may be written out of order and should be matched to requests by id. On
+ * a shutdown command or end of input, the worker stops reading, finishes all in-flight requests, and flushes its output
+ * before returning.
+ *
+ * @author jgung
+ */
+@Slf4j
+public class JsonLinesWorker {
+
+    private final VerbNetParser parser;
+    private final int threads;
+    private final int maxInFlight;
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(VerbNetParseSerializer.module());
+
+    /**
+     * Initialize a JSON-lines worker.
+     *
+     * @param parser      shared, thread-safe parser
+     * @param threads     number of threads used to process requests
+     * @param maxInFlight maximum number of requests read but not yet answered
+     */
+    public JsonLinesWorker(@NonNull VerbNetParser parser, int threads, int maxInFlight) {
+        Preconditions.checkArgument(threads > 0, "Number of threads must be positive: %s", threads);
+        Preconditions.checkArgument(maxInFlight >= threads, "Maximum in-flight requests (%s) must be at least "
+                + "the number of threads (%s)", maxInFlight, threads);
+        this.parser = parser;
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Process requests until end of input or a shutdown command is received.
+     *
+     * @param input  newline-delimited JSON requests
+     * @param output newline-delimited JSON responses, should not be shared with logging output
+     */
+    public void run(@NonNull InputStream input, @NonNull OutputStream output) throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        Semaphore permits = new Semaphore(maxInFlight);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                JsonNode request;
+                try {
+                    request = mapper.readTree(line);
+                } catch (IOException e) {
+                    write(writer, error(null, "Invalid JSON request: " + e.getMessage()));
+                    continue;
+                }
+                if (!request.isObject()) {
+                    write(writer, error(null, "Expected a JSON object"));
+                    continue;
+                }
+                if ("shutdown".equals(request.path("command").asText())) {
+                    log.info("Received shutdown command");
+                    break;
+                }
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        write(writer, process(request));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            synchronized (writer) {
+                writer.flush();
+            }
+        }
+    }
+
+    private ObjectNode process(JsonNode request) {
+        JsonNode id = request.get("id");
+        try {
+            ObjectNode response = mapper.createObjectNode();
+            response.set("id", id);
+            if (request.has("sentence")) {
+                if (!request.get("sentence").isTextual()) {
+                    return error(id, "Expected \"sentence\" to be a string");
+                }
+                response.set("parse", mapper.valueToTree(parser.parse(request.get("sentence").asText())));
+            } else if (request.path("sentences").isArray()) {
+                for (JsonNode sentence : request.get("sentences")) {
+                    if (!sentence.isTextual()) {
+                        return error(id, "Expected \"sentences\" to be strings");
+                    }
+                }
+                List<VerbNetParse> parses = new ArrayList<>();
+                for (JsonNode sentence : request.get("sentences")) {
+                    parses.add(parser.parse(sentence.asText()));
+                }
+                response.set("parses", mapper.valueToTree(parses));
+            } else {
+                return error(id, "Expected a \"sentence\" or \"sentences\" field");
+            }
+            return response;
+        } catch (Exception e) {
+            log.warn("Failed to process request {}", id, e);
+            return error(id, "Parsing failed: " + e.getMessage());
+        }
+    }
+
+    private ObjectNode error(JsonNode id, String message) {
+        ObjectNode response = mapper.createObjectNode();
+        response.set("id", id);
+        response.put("error", message);
+        return response;
+    }
+
+    private void write(Writer writer, JsonNode response) {
+        try {
+            String line = mapper.writeValueAsString(response);
+            synchronized (writer) {
+                writer.write(line);
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.parser;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Pipeline depth applied by a {@link VerbNetParser}. Stages that are not needed for a given profile are skipped entirely, so
+ * e.g. a {@link #WSD_ONLY} parser never requires a semantic role labeling model.
+ *
+ * @author jgung
+ */
+@Getter
+@Accessors(fluent = true)
+@AllArgsConstructor
+public enum ParseProfile {
+
+    /**
+     * VerbNet class disambiguation of predicates only.
+     */
+    WSD_ONLY(false, false, false),
+    /**
+     * VerbNet class disambiguation and PropBank semantic role labeling, without alignment to VerbNet thematic roles.
+     */
+    SRL_ONLY(true, false, false),
+    /**
+     * Alignment of PropBank roles to VerbNet thematic roles, without extraction of VerbNet semantic predicates.
+     */
+    NO_SEMANTICS(true, true, false),
+    /**
+     * All stages, including extraction of VerbNet semantic predicates.
+     */
+    FULL(true, true, true);
+
+    /**
+     * Whether PropBank semantic role labeling is applied.
+     */
+    private final boolean roleLabeling;
+    /**
+     * Whether PropBank roles are aligned to VerbNet thematic roles.
+     */
+    private final boolean alignment;
+    /**
+     * Whether VerbNet semantic predicates are extracted from aligned frames.
+     */
+    private final boolean semantics;
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.parser;
+
+import java.util.function.Function;
+
+import io.github.clearwsd.type.DefaultNlpFocus;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.semlink.type.ITokenSequence;
+import lombok.NonNull;
+
+/**
+ * Maps a predicate of a dependency tree to the input sequence of a shallow parser. The {@link ColumnarDepTree} is built once
+ * per tree and shared by all of its predicates.
+ *
+ * @author jgung
+ */
+@FunctionalInterface
+public interface PredicateInputAdapter {
+
+    /**
+     * Return the input sequence for a given predicate.
+     *
+     * @param tree           columnar view of the dependency tree
+     * @param predicateIndex index of the predicate within the tree
+     * @return input sequence
+     */
+    ITokenSequence adapt(@NonNull ColumnarDepTree tree, int predicateIndex);
+
+    /**
+     * Adapt a function over {@link NlpFocus focused} trees, called with a new focus for each predicate.
+     *
+     * @param adapter function mapping a focused tree to an input sequence, e.g. {@link RoleLabelerUtils#focus2Sequence}
+     * @return predicate input adapter
+     */
+    static PredicateInputAdapter of(@NonNull Function<NlpFocus<DepNode, DepTree>, ITokenSequence> adapter) {
+        return (tree, predicateIndex) -> adapter.apply(new DefaultNlpFocus<>(predicateIndex,
+                tree.tree().get(predicateIndex), tree.tree()));
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.parser;
+
+import java.util.AbstractList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+import io.github.semlink.type.FieldSchema;
+import io.github.semlink.type.IToken;
+import io.github.semlink.type.ITokenSequence;
+import io.github.semlink.type.SchemaFields;
+import io.github.semlink.type.Token;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+/**
+ * {@link ITokenSequence} for a single predicate of a dependency tree, backed by the tree's words (e.g. those of a
+ * {@link ColumnarDepTree}). Fields (words and predicate index) are stored in {@link SchemaFields}, so that creating one
+ * sequence per predicate copies nothing. {@link IToken tokens} are only created for callers that access them.
+ *
+ * @author jgung
+ */
+@Accessors(fluent = true)
+public class PredicateSequence extends AbstractList<IToken> implements ITokenSequence, RandomAccess {
+
+    private final List<String> words;
+    @Getter
+    private final SchemaFields features;
+
+    /**
+     * Initialize a predicate sequence over the words of a dependency tree.
+     *
+     * @param words          words of a dependency tree, which should not be modified afterwards
+     * @param predicateIndex index of predicate within the tree
+     * @param schema         schema for features
+     * @param wordsSlot      slot for the list of words
+     * @param predicateSlot  slot for the predicate index
+     */
+    public PredicateSequence(@NonNull List<String> words, int predicateIndex,
+                             @NonNull FieldSchema schema, int wordsSlot, int predicateSlot) {
+        this.words = words;
+        this.features = schema.newFields()
+                .set(wordsSlot, words)
+                .setInt(predicateSlot, predicateIndex);
+    }
+
+    @Override
+    public IToken get(int index) {
+        return new Token(words.get(index), index);
+    }
+
+    @Override
+    public int size() {
+        return words.size();
+    }
+
+    @Override
+    public <T> T field(@NonNull String key) {
+        return features.field(key);
+    }
+
+    @Override
+    public <T> T field(@NonNull Enum key) {
+        return features.field(key);
+    }
+
+    @Override
+    public int intField(@NonNull String key) {
+        return features.intField(key);
+    }
+
+    @Override
+    public boolean hasFields(@NonNull EnumSet<?> keys) {
+        return features.hasFields(keys);
+    }
+
+    @Override
+    public boolean hasFields(@NonNull String... keys) {
+        return features.hasFields(keys);
+    }
+
+}
@@ -17,6 +17,7 @@
 package io.github.semlink.parser;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,19 +25,18 @@ import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
 import io.github.clearwsd.type.NlpFocus;
+import io.github.semlink.app.InferenceBackends;
+import io.github.semlink.app.LabelingModel;
+import io.github.semlink.app.ModelWarmup;
 import io.github.semlink.app.ShallowParser;
-import io.github.semlink.type.Fields;
+import io.github.semlink.type.FieldSchema;
 import io.github.semlink.type.HasFields;
 import io.github.semlink.type.IToken;
 import io.github.semlink.type.ITokenSequence;
-import io.github.semlink.type.Token;
-import io.github.semlink.type.TokenSequence;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 
-import static io.github.semlink.parser.feat.BertSrlExampleExtractor.bertFromDirectory;
-
 /**
  * Semantic role labeling utilities specific to our SRL system's input needs.
  *
@@ -47,47 +47,98 @@ public final class RoleLabelerUtils {
 
     private static final String PREDICATE_INDEX_KEY = "predicate_index";
     private static final String WORD_KEY = "word";
+    // frequent word expected to be a single WordPiece, so that warmup lengths in tokens track lengths in subtokens
+    private static final String WARMUP_WORD = "the";
+    // backend loading models from a directory by default, provided by semparse-tf4j
+    private static final String TENSORFLOW_BACKEND = "tensorflow";
+
+    // SRL input fields, resolved to slots once
+    private static final FieldSchema SRL_SCHEMA = FieldSchema.of(WORD_KEY, PREDICATE_INDEX_KEY);
+    private static final int WORD_SLOT = SRL_SCHEMA.requireSlot(WORD_KEY);
+    private static final int PREDICATE_INDEX_SLOT = SRL_SCHEMA.requireSlot(PREDICATE_INDEX_KEY);
 
     /**
-     * Convert an {@link NlpFocus} to an {@link ITokenSequence} for use in feature extraction.
+     * Convert an {@link NlpFocus} to an {@link ITokenSequence} for use in feature extraction. Copies the tree's words for each
+     * call, so predicates of the same tree should use {@link #predicateSequence(ColumnarDepTree, int)} instead.
      */
     public static ITokenSequence focus2Sequence(NlpFocus<DepNode, DepTree> tree) {
-        List<IToken> tokens = new ArrayList<>();
-        for (DepNode node : tree.tokens()) {
-            Token token = new Token(node.feature(FeatureType.Text), node.index());
-            tokens.add(token);
+        List<String> words = new ArrayList<>(tree.sequence().size());
+        for (DepNode node : tree.sequence()) {
+            words.add(node.feature(FeatureType.Text));
         }
-        TokenSequence sequence = new TokenSequence(tokens);
-        sequence.add(PREDICATE_INDEX_KEY, tree.focus().index());
-        return sequence;
+        return new PredicateSequence(words, tree.focus().index(), SRL_SCHEMA, WORD_SLOT, PREDICATE_INDEX_SLOT);
+    }
+
+    /**
+     * Convert a predicate of a {@link ColumnarDepTree} to an {@link ITokenSequence} for use in feature extraction. The sequence
+     * is a view over the tree's words.
+     */
+    public static ITokenSequence predicateSequence(@NonNull ColumnarDepTree tree, int predicateIndex) {
+        return new PredicateSequence(tree.words(), predicateIndex, SRL_SCHEMA, WORD_SLOT, PREDICATE_INDEX_SLOT);
     }
 
     /**
-     * Populate features for a shallow semantic parser.
+     * Populate features for a shallow semantic parser. Sequences from {@link #predicateSequence(ColumnarDepTree, int)} already hold
+     * their features, and are used without copying.
      *
      * @param tokens input sequence of tokens
      * @return feature fields
      */
     private static HasFields shallowSemParseFeatures(ITokenSequence tokens) {
+        if (tokens instanceof PredicateSequence) {
+            return ((PredicateSequence) tokens).features();
+        }
         List<String> words = tokens.stream()
                 .map(IToken::text)
                 .collect(Collectors.toList());
-        int predicateIndex = tokens.field(PREDICATE_INDEX_KEY);
+        return SRL_SCHEMA.newFields()
+                .set(WORD_SLOT, words)
+                .setInt(PREDICATE_INDEX_SLOT, tokens.intField(PREDICATE_INDEX_KEY));
+    }
 
-        Fields features = new Fields();
-        features.add(WORD_KEY, words);
-        features.add(PREDICATE_INDEX_KEY, predicateIndex);
-        return features;
+    /**
+     * Produce a synthetic shallow semantic parser input with a given number of tokens, with a predicate in the middle.
+     *
+     * @param length number of tokens
+     * @return feature fields
+     */
+    public static HasFields warmupFeatures(int length) {
+        return SRL_SCHEMA.newFields()
+                .set(WORD_SLOT, Collections.nCopies(length, WARMUP_WORD))
+                .setInt(PREDICATE_INDEX_SLOT, length / 2);
     }
 
     /**
-     * Initialize a shallow semantic parser from a Tensorflow model at a given directory.
+     * Warmup routine for shallow semantic parsers over the given batch-size and sequence-length buckets.
+     *
+     * @param batchSizes      batch-size buckets
+     * @param sequenceLengths sequence-length buckets, in tokens
+     * @return warmup routine
+     */
+    public static ModelWarmup shallowSemanticParserWarmup(@NonNull List<Integer> batchSizes,
+                                                          @NonNull List<Integer> sequenceLengths) {
+        return new ModelWarmup(RoleLabelerUtils::warmupFeatures, batchSizes, sequenceLengths);
+    }
+
+    /**
+     * Initialize a shallow semantic parser from a Tensorflow model at a given directory, loaded through the "tensorflow"
+     * {@link io.github.semlink.app.InferenceBackend}, which requires the semparse-tf4j module on the classpath.
      *
      * @param modelDir Tensorflow saved model directory
      * @return shallow semantic parser
      */
     public static ShallowParser shallowSemanticParser(@NonNull String modelDir) {
-        return new ShallowParser(bertFromDirectory(modelDir), RoleLabelerUtils::shallowSemParseFeatures);
+        return shallowSemanticParser(InferenceBackends.forName(TENSORFLOW_BACKEND).load(modelDir, Collections.emptyMap()));
+    }
+
+    /**
+     * Initialize a shallow semantic parser over a given model, such as a reloadable Tensorflow model.
+     *
+     * @param model model predicting SRL labels
+     * @return shallow semantic parser
+     */
+    public static ShallowParser shallowSemanticParser(@NonNull LabelingModel model) {
+        return new ShallowParser(model, RoleLabelerUtils::shallowSemParseFeatures);
     }
 
 }
@@ -19,6 +19,8 @@ package io.github.semlink.parser;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import io.github.clearwsd.SensePrediction;
@@ -45,6 +47,21 @@ public interface SemanticRoleLabeler<A> {
      */
     List<Proposition<DepNode, A>> parse(@NonNull DepTree tree, @NonNull List<Integer> predicates);
 
+    /**
+     * Asynchronously apply semantic role labeling to an input {@link DepTree dependency parse} with respect to a list of
+     * {@link SensePrediction predicates}. By default, runs {@link #parse(DepTree, List)} on the given executor.
+     *
+     * @param tree       input dependency parse tree
+     * @param predicates indices of predicates in the tree
+     * @param executor   executor used for blocking work
+     * @return future list of propositions corresponding to role labels for each input predicate
+     */
+    default CompletableFuture<List<Proposition<DepNode, A>>> parseAsync(@NonNull DepTree tree,
+                                                                        @NonNull List<Integer> predicates,
+                                                                        @NonNull Executor executor) {
+        return CompletableFuture.supplyAsync(() -> parse(tree, predicates), executor);
+    }
+
     /**
      * Apply semantic role labeling to an input {@link DepTree dependency parse} with respect to a single {@link SensePrediction
      * predicate}.
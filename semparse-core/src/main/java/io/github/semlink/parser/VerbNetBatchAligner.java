@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.parser;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.github.clearwsd.SensePrediction;
+import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.semlink.parser.ConllSrlReader.SrlSentence;
+import io.github.semlink.propbank.type.PropBankArg;
+import io.github.semlink.semlink.VerbNetAligner;
+import io.github.semlink.verbnet.VnClass;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Aligns precomputed (e.g. gold) PropBank propositions with VerbNet, applying only dependency parsing, VerbNet class
+ * disambiguation, and alignment. No semantic role labeling model is involved, so sentences are processed independently in a
+ * {@link ForkJoinPool} and results are streamed out in input order.
+ *
+ * @author jgung
+ */
+@Slf4j
+@Accessors(fluent = true)
+public class VerbNetBatchAligner {
+
+    private NlpParser parser;
+    private VnPredicateDetector predicateDetector;
+    private VerbNetAligner aligner;
+    private ForkJoinPool pool;
+
+    /**
+     * Number of sentences submitted to the pool at a time. The next chunk is read while the current chunk is processed.
+     */
+    @Getter
+    @Setter
+    private int chunkSize = 256;
+    /**
+     * Determines whether VerbNet semantic predicates are extracted ({@link ParseProfile#FULL}) or only thematic roles are
+     * aligned ({@link ParseProfile#NO_SEMANTICS}).
+     */
+    @Getter
+    @Setter
+    private ParseProfile profile = ParseProfile.FULL;
+
+    public VerbNetBatchAligner(@NonNull NlpParser parser,
+                               @NonNull VnPredicateDetector predicateDetector,
+                               @NonNull VerbNetAligner aligner,
+                               @NonNull ForkJoinPool pool) {
+        this.parser = parser;
+        this.predicateDetector = predicateDetector;
+        this.aligner = aligner;
+        this.pool = pool;
+    }
+
+    public VerbNetBatchAligner(@NonNull NlpParser parser,
+                               @NonNull VnPredicateDetector predicateDetector,
+                               @NonNull VerbNetAligner aligner) {
+        this(parser, predicateDetector, aligner, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Align a single sentence with precomputed PropBank propositions.
+     *
+     * @param sentence tokenized sentence with PropBank propositions
+     * @return VerbNet parse, including only propositions whose predicates were assigned a VerbNet class
+     */
+    public VerbNetParse align(@NonNull SrlSentence sentence) {
+        DepTree tree = parser.parse(sentence.tokens());
+        List<SensePrediction<VnClass>> senses = predicateDetector.detectPredicates(tree);
+        Map<Integer, VnClass> sensesByIndex = senses.stream()
+                .filter(sense -> null != sense.sense())
+                .collect(Collectors.toMap(SensePrediction::index, SensePrediction::sense));
+
+        List<Proposition<VnClass, PropBankArg>> props = sentence.propositions().stream()
+                .map(prop -> SemanticRoleLabeler.convert(prop, sensesByIndex.get(prop.relIndex())))
+                .collect(Collectors.toList());
+
+        return new VerbNetParse()
+                .profile(profile)
+                .tokens(tree.stream()
+                        .map(node -> (String) node.feature(FeatureType.Text))
+                        .collect(Collectors.toList()))
+                .tree(tree)
+                .senses(senses)
+                .propositions(props)
+                .props(aligner.align(tree, props, profile.semantics()));
+    }
+
+    /**
+     * Align a stream of sentences in parallel, passing results to a consumer in input order. Sentences that fail to align are
+     * logged and skipped.
+     *
+     * @param sentences input sentences with PropBank propositions
+     * @param consumer  consumer of aligned results, called from the calling thread
+     */
+    public void alignAll(@NonNull Stream<SrlSentence> sentences, @NonNull Consumer<VerbNetParse> consumer) {
+        Iterator<SrlSentence> iterator = sentences.iterator();
+        ForkJoinTask<List<VerbNetParse>> pending = null;
+        while (iterator.hasNext()) {
+            List<SrlSentence> chunk = nextChunk(iterator);
+            ForkJoinTask<List<VerbNetParse>> submitted = pool.submit(() -> chunk.parallelStream()
+                    .map(safeAlign())
+                    .collect(Collectors.toList()));
+            if (null != pending) {
+                emit(pending, consumer);
+            }
+            pending = submitted;
+        }
+        if (null != pending) {
+            emit(pending, consumer);
+        }
+    }
+
+    private List<SrlSentence> nextChunk(Iterator<SrlSentence> iterator) {
+        List<SrlSentence> chunk = new ArrayList<>(chunkSize);
+        while (iterator.hasNext() && chunk.size() < chunkSize) {
+            chunk.add(iterator.next());
+        }
+        return chunk;
+    }
+
+    private Function<SrlSentence, VerbNetParse> safeAlign() {
+        return sentence -> {
+            try {
+                return align(sentence);
+            } catch (RuntimeException e) {
+                log.warn("Unable to align sentence: {}", String.join(" ", sentence.tokens()), e);
+                return null;
+            }
+        };
+    }
+
+    private static void emit(ForkJoinTask<List<VerbNetParse>> task, Consumer<VerbNetParse> consumer) {
+        task.join().stream()
+                .filter(Objects::nonNull)
+                .forEach(consumer);
+    }
+
+}
@@ -20,7 +20,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import io.github.clearwsd.SensePrediction;
 import io.github.clearwsd.type.DepTree;
+import io.github.semlink.propbank.type.PropBankArg;
+import io.github.semlink.verbnet.VnClass;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -35,12 +38,34 @@ import lombok.experimental.Accessors;
 @Accessors(fluent = true)
 public class VerbNetParse {
 
+    private ParseProfile profile = ParseProfile.FULL;
     private DepTree tree;
     private List<String> tokens;
+    /**
+     * Predicates and their VerbNet classes.
+     */
+    private List<SensePrediction<VnClass>> senses = new ArrayList<>();
+    /**
+     * PropBank propositions, available unless parsed with {@link ParseProfile#WSD_ONLY}.
+     */
+    private List<Proposition<VnClass, PropBankArg>> propositions = new ArrayList<>();
+    /**
+     * VerbNet propositions, available for profiles that include {@link ParseProfile#alignment() alignment}.
+     */
     private List<VerbNetProp> props = new ArrayList<>();
 
     @Override
     public String toString() {
+        if (!profile.roleLabeling()) {
+            return senses.stream()
+                    .map(sense -> sense.originalText() + "[" + sense.index() + "] " + sense.sense())
+                    .collect(Collectors.joining("\n"));
+        }
+        if (!profile.alignment()) {
+            return propositions.stream()
+                    .map(prop -> prop.toString(tokens, cls -> String.valueOf(cls)))
+                    .collect(Collectors.joining("\n\n"));
+        }
         return props.stream()
                 .map(Object::toString)
                 .collect(Collectors.joining("\n\n"));
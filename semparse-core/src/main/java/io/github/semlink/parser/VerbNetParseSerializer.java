@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.parser;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+import io.github.clearwsd.SensePrediction;
+import io.github.semlink.app.Span;
+import io.github.semlink.propbank.type.PropBankArg;
+import io.github.semlink.semlink.SemlinkRole;
+import io.github.semlink.verbnet.VnClass;
+import io.github.semlink.verbnet.semantics.SemanticPredicate;
+
+/**
+ * JSON serializer for {@link VerbNetParse} results, writing only the outputs produced by the parse's {@link ParseProfile}.
+ *
+ * @author jgung
+ */
+public class VerbNetParseSerializer extends StdSerializer<VerbNetParse> {
+
+    public VerbNetParseSerializer() {
+        super(VerbNetParse.class);
+    }
+
+    /**
+     * Jackson module registering this serializer.
+     */
+    public static SimpleModule module() {
+        return new SimpleModule("VerbNetParseModule").addSerializer(VerbNetParse.class, new VerbNetParseSerializer());
+    }
+
+    @Override
+    public void serialize(VerbNetParse parse, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("profile", parse.profile().name());
+        gen.writeArrayFieldStart("tokens");
+        for (String token : parse.tokens()) {
+            gen.writeString(token);
+        }
+        gen.writeEndArray();
+
+        gen.writeArrayFieldStart("senses");
+        for (SensePrediction<VnClass> sense : parse.senses()) {
+            gen.writeStartObject();
+            gen.writeNumberField("index", sense.index());
+            gen.writeStringField("text", sense.originalText());
+            writeVnClass(gen, sense.sense());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+
+        if (parse.profile().roleLabeling() && !parse.profile().alignment()) {
+            gen.writeArrayFieldStart("propositions");
+            for (Proposition<VnClass, PropBankArg> prop : parse.propositions()) {
+                gen.writeStartObject();
+                gen.writeNumberField("relIndex", prop.relIndex());
+                writeVnClass(gen, prop.predicate());
+                gen.writeArrayFieldStart("arguments");
+                for (Span<PropBankArg> span : prop.arguments().spans()) {
+                    gen.writeStartObject();
+                    gen.writeStringField("pb", span.label().toString());
+                    writeSpan(gen, span, parse.tokens());
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+
+        if (parse.profile().alignment()) {
+            gen.writeArrayFieldStart("props");
+            for (VerbNetProp prop : parse.props()) {
+                gen.writeStartObject();
+                gen.writeNumberField("relIndex", prop.proposition().relIndex());
+                writeVnClass(gen, prop.vncls());
+                gen.writeArrayFieldStart("roles");
+                for (Span<SemlinkRole> span : prop.proposition().arguments().spans()) {
+                    SemlinkRole role = span.label();
+                    gen.writeStartObject();
+                    if (null != role.propBankArg()) {
+                        gen.writeStringField("pb", role.propBankArg().toString());
+                    }
+                    if (null != role.thematicRoleType()) {
+                        gen.writeStringField("vn", role.thematicRoleType().toString());
+                    }
+                    if (null != role.pbRole()) {
+                        gen.writeStringField("description", role.pbRole().description());
+                    }
+                    writeSpan(gen, span, parse.tokens());
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+                gen.writeArrayFieldStart("predicates");
+                for (SemanticPredicate predicate : prop.predicates()) {
+                    gen.writeString(predicate.toString());
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeVnClass(JsonGenerator gen, VnClass vnClass) throws IOException {
+        if (null != vnClass) {
+            gen.writeStringField("vnClass", vnClass.verbNetId().classId());
+        }
+    }
+
+    private static void writeSpan(JsonGenerator gen, Span<?> span, List<String> tokens) throws IOException {
+        gen.writeNumberField("start", span.startIndex());
+        gen.writeNumberField("end", span.endIndex());
+        gen.writeStringField("text", String.join(" ", span.get(tokens)));
+    }
+
+}
@@ -16,19 +16,30 @@
 
 package io.github.semlink.parser;
 
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import io.github.clearwsd.SensePrediction;
 import io.github.clearwsd.parser.NlpParser;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
+import io.github.semlink.app.BatchingShallowParser;
+import io.github.semlink.app.InferenceBackend;
+import io.github.semlink.app.InferenceBackends;
+import io.github.semlink.app.LabelingModel;
 import io.github.semlink.propbank.type.PropBankArg;
 import io.github.semlink.semlink.VerbNetAligner;
 import io.github.semlink.verbnet.VnClass;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -38,12 +49,48 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Getter
-@AllArgsConstructor
 public class VerbNetParser {
 
     private VnPredicateDetector vnPredicateDetector;
     private NlpParser parser;
     private VerbNetSemParser verbNetRoleLabeler;
+    /**
+     * Default pipeline depth, used when no profile is specified at parse time.
+     */
+    @Setter
+    private ParseProfile profile = ParseProfile.FULL;
+    /**
+     * Executor used for blocking stages (dependency parsing, predicate detection, alignment) of asynchronous parsing.
+     */
+    @Setter
+    @NonNull
+    private Executor executor = ForkJoinPool.commonPool();
+
+    public VerbNetParser(@NonNull VnPredicateDetector vnPredicateDetector,
+                         @NonNull NlpParser parser,
+                         VerbNetSemParser verbNetRoleLabeler) {
+        this.vnPredicateDetector = vnPredicateDetector;
+        this.parser = parser;
+        this.verbNetRoleLabeler = verbNetRoleLabeler;
+    }
+
+    /**
+     * Initialize a {@link ParseProfile#WSD_ONLY} parser, which requires no semantic role labeling model.
+     */
+    public VerbNetParser(@NonNull VnPredicateDetector verbNetClassifier, @NonNull NlpParser parser) {
+        this(verbNetClassifier, parser, (VerbNetSemParser) null);
+        this.profile = ParseProfile.WSD_ONLY;
+    }
+
+    /**
+     * Initialize a {@link ParseProfile#SRL_ONLY} parser, which requires no VerbNet aligner.
+     */
+    public VerbNetParser(@NonNull VnPredicateDetector verbNetClassifier,
+                         @NonNull NlpParser parser,
+                         @NonNull SemanticRoleLabeler<PropBankArg> roleLabeler) {
+        this(verbNetClassifier, parser, new VerbNetSemParser(roleLabeler, null));
+        this.profile = ParseProfile.SRL_ONLY;
+    }
 
     public VerbNetParser(@NonNull VnPredicateDetector verbNetClassifier,
                          @NonNull NlpParser parser,
@@ -64,14 +111,66 @@ public class VerbNetParser {
      */
     public VerbNetParse parse(@NonNull DepTree parsed,
                               @NonNull List<SensePrediction<VnClass>> senses) {
-        List<VerbNetProp> vnProps = verbNetRoleLabeler.extractProps(parsed, senses);
+        return parse(parsed, senses, profile);
+    }
 
+    /**
+     * Generate a {@link VerbNetParse} from a {@link DepTree dependency parse} for a list of specific verbs/predicates linked to
+     * VerbNet classes, applying only the stages required by a given {@link ParseProfile}.
+     *
+     * @param parsed  dependency parse
+     * @param senses  predicates (verbs)
+     * @param profile pipeline depth
+     * @return VerbNet semantic parse
+     */
+    public VerbNetParse parse(@NonNull DepTree parsed,
+                              @NonNull List<SensePrediction<VnClass>> senses,
+                              @NonNull ParseProfile profile) {
+        VerbNetParse result = initParse(parsed, senses, profile);
+        if (!profile.roleLabeling()) {
+            return result;
+        }
+        return completeParse(result, verbNetRoleLabeler.labelProps(parsed, senses));
+    }
+
+    /**
+     * Asynchronously generate a {@link VerbNetParse} from a {@link DepTree dependency parse} for a list of specific
+     * verbs/predicates linked to VerbNet classes, applying only the stages required by a given {@link ParseProfile}.
+     *
+     * @param parsed  dependency parse
+     * @param senses  predicates (verbs)
+     * @param profile pipeline depth
+     * @return future VerbNet semantic parse
+     */
+    public CompletableFuture<VerbNetParse> parseAsync(@NonNull DepTree parsed,
+                                                      @NonNull List<SensePrediction<VnClass>> senses,
+                                                      @NonNull ParseProfile profile) {
+        VerbNetParse result = initParse(parsed, senses, profile);
+        if (!profile.roleLabeling()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return verbNetRoleLabeler.labelPropsAsync(parsed, senses, executor)
+                .thenApplyAsync(props -> completeParse(result, props), executor);
+    }
+
+    private VerbNetParse initParse(DepTree parsed, List<SensePrediction<VnClass>> senses, ParseProfile profile) {
+        Preconditions.checkState(!profile.roleLabeling() || null != verbNetRoleLabeler,
+                "Profile %s requires a semantic role labeler", profile);
         return new VerbNetParse()
+                .profile(profile)
                 .tokens(parsed.stream()
                         .map(node -> (String) node.feature(FeatureType.Text))
                         .collect(Collectors.toList()))
                 .tree(parsed)
-                .props(vnProps);
+                .senses(senses);
+    }
+
+    private VerbNetParse completeParse(VerbNetParse result, List<Proposition<VnClass, PropBankArg>> props) {
+        result.propositions(props);
+        if (result.profile().alignment()) {
+            result.props(verbNetRoleLabeler.align(result.tree(), props, result.profile().semantics()));
+        }
+        return result;
     }
 
     /**
@@ -82,8 +181,31 @@ public class VerbNetParser {
      * @return VerbNet semantic parse
      */
     public VerbNetParse parse(@NonNull DepTree parsed) {
+        return parse(parsed, profile);
+    }
+
+    /**
+     * Generate a {@link VerbNetParse} from a {@link DepTree dependency parse} using a given {@link ParseProfile}.
+     *
+     * @param parsed  dependency parse
+     * @param profile pipeline depth
+     * @return VerbNet semantic parse
+     */
+    public VerbNetParse parse(@NonNull DepTree parsed, @NonNull ParseProfile profile) {
         List<SensePrediction<VnClass>> senses = vnPredicateDetector.detectPredicates(parsed);
-        return parse(parsed, senses);
+        return parse(parsed, senses, profile);
+    }
+
+    /**
+     * Asynchronously generate a {@link VerbNetParse} from a {@link DepTree dependency parse} using a given {@link ParseProfile}.
+     *
+     * @param parsed  dependency parse
+     * @param profile pipeline depth
+     * @return future VerbNet semantic parse
+     */
+    public CompletableFuture<VerbNetParse> parseAsync(@NonNull DepTree parsed, @NonNull ParseProfile profile) {
+        return CompletableFuture.supplyAsync(() -> vnPredicateDetector.detectPredicates(parsed), executor)
+                .thenCompose(senses -> parseAsync(parsed, senses, profile));
     }
 
     /**
@@ -94,16 +216,89 @@ public class VerbNetParser {
      * @return VerbNet semantic parse
      */
     public VerbNetParse parse(@NonNull String sentence) {
+        return parse(sentence, profile);
+    }
+
+    /**
+     * Generate a {@link VerbNetParse} from a raw, untokenized input sentence using a given {@link ParseProfile}.
+     *
+     * @param sentence raw input sentence
+     * @param profile  pipeline depth
+     * @return VerbNet semantic parse
+     */
+    public VerbNetParse parse(@NonNull String sentence, @NonNull ParseProfile profile) {
         List<String> tokens = parser.tokenize(sentence);
         DepTree depTree = parser.parse(tokens);
-        return parse(depTree);
+        return parse(depTree, profile);
     }
 
     /**
-     * Instantiate a new {@link SemanticRoleLabeler} for PropBank from a given model path.
+     * Asynchronously generate a {@link VerbNetParse} from a raw, untokenized input sentence. Blocking stages run on the
+     * configured {@link #setExecutor(Executor) executor}; cancelling the returned future does not interrupt stages already
+     * running. Use {@link CompletableFuture#get(long, java.util.concurrent.TimeUnit)} to bound waiting time.
+     *
+     * @param sentence raw input sentence
+     * @return future VerbNet semantic parse
+     */
+    public CompletableFuture<VerbNetParse> parseAsync(@NonNull String sentence) {
+        return parseAsync(sentence, profile);
+    }
+
+    /**
+     * Asynchronously generate a {@link VerbNetParse} from a raw, untokenized input sentence using a given
+     * {@link ParseProfile}.
+     *
+     * @param sentence raw input sentence
+     * @param profile  pipeline depth
+     * @return future VerbNet semantic parse
+     */
+    public CompletableFuture<VerbNetParse> parseAsync(@NonNull String sentence, @NonNull ParseProfile profile) {
+        return CompletableFuture.supplyAsync(() -> parser.parse(parser.tokenize(sentence)), executor)
+                .thenCompose(depTree -> parseAsync(depTree, profile));
+    }
+
+    /**
+     * Instantiate a new {@link SemanticRoleLabeler} for PropBank from a given model path, using the "tensorflow"
+     * {@link InferenceBackend} from the semparse-tf4j module.
      */
     public static SemanticRoleLabeler<PropBankArg> pbRoleLabeler(@NonNull String modelPath) {
         return new DefaultSemanticRoleLabeler<>(RoleLabelerUtils.shallowSemanticParser(modelPath), PropBankArg::fromLabel);
     }
 
+    /**
+     * Instantiate a new {@link SemanticRoleLabeler} for PropBank from a given model path using a named
+     * {@link InferenceBackend}, e.g. "stub" to run the pipeline without a Tensorflow model.
+     *
+     * @param modelPath SRL model path
+     * @param backend   backend name
+     * @param options   backend-specific options
+     */
+    public static SemanticRoleLabeler<PropBankArg> pbRoleLabeler(@NonNull String modelPath,
+                                                                 @NonNull String backend,
+                                                                 @NonNull Map<String, String> options) {
+        return pbRoleLabeler(InferenceBackends.forName(backend).load(modelPath, options));
+    }
+
+    /**
+     * Instantiate a new {@link SemanticRoleLabeler} for PropBank over a given model, e.g. to share the model with a
+     * {@link io.github.semlink.app.ModelWarmup warmup} routine.
+     */
+    public static SemanticRoleLabeler<PropBankArg> pbRoleLabeler(@NonNull LabelingModel model) {
+        return new DefaultSemanticRoleLabeler<>(RoleLabelerUtils.shallowSemanticParser(model), PropBankArg::fromLabel);
+    }
+
+    /**
+     * Instantiate a new {@link SemanticRoleLabeler} for PropBank from a given model path, combining predicates from concurrent
+     * callers into micro-batches.
+     *
+     * @param modelPath    SRL model path
+     * @param maxBatchSize maximum number of predicates in a single batch
+     * @param maxWait      maximum time a predicate waits for others before its batch is dispatched
+     */
+    public static SemanticRoleLabeler<PropBankArg> pbRoleLabeler(@NonNull String modelPath, int maxBatchSize,
+                                                                 @NonNull Duration maxWait) {
+        return new DefaultSemanticRoleLabeler<>(new BatchingShallowParser(RoleLabelerUtils.shallowSemanticParser(modelPath),
+                maxBatchSize, maxWait), PropBankArg::fromLabel);
+    }
+
 }
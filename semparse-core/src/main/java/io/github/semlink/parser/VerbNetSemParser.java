@@ -16,9 +16,13 @@
 
 package io.github.semlink.parser;
 
+import com.google.common.base.Preconditions;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -54,12 +58,47 @@ public class VerbNetSemParser {
      */
     public List<VerbNetProp> extractProps(@NonNull DepTree parsed,
                                           @NonNull List<SensePrediction<VnClass>> senses) {
-        Map<Integer, SensePrediction<VnClass>> sensesByIndex = senses.stream()
-                .collect(Collectors.toMap(SensePrediction::index, Function.identity()));
+        return align(parsed, labelProps(parsed, senses), true);
+    }
 
-        List<Proposition<DepNode, PropBankArg>> props = roleLabeler.parse(parsed, senses.stream()
+    /**
+     * Apply PropBank semantic role labeling to the input dependency parse for a given list of predicates, without alignment to
+     * VerbNet.
+     *
+     * @param parsed dependency parse
+     * @param senses predicates with sense predictions
+     * @return PropBank propositions, with VerbNet classes (if any) as predicates
+     */
+    public List<Proposition<VnClass, PropBankArg>> labelProps(@NonNull DepTree parsed,
+                                                              @NonNull List<SensePrediction<VnClass>> senses) {
+        return filter(roleLabeler.parse(parsed, senses.stream()
                 .map(SensePrediction::index)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList())), senses);
+    }
+
+    /**
+     * Asynchronously apply PropBank semantic role labeling to the input dependency parse for a given list of predicates, without
+     * alignment to VerbNet.
+     *
+     * @param parsed   dependency parse
+     * @param senses   predicates with sense predictions
+     * @param executor executor used for blocking work
+     * @return future PropBank propositions, with VerbNet classes (if any) as predicates
+     */
+    public CompletableFuture<List<Proposition<VnClass, PropBankArg>>> labelPropsAsync(
+            @NonNull DepTree parsed,
+            @NonNull List<SensePrediction<VnClass>> senses,
+            @NonNull Executor executor) {
+        return roleLabeler.parseAsync(parsed, senses.stream()
+                .map(SensePrediction::index)
+                .collect(Collectors.toList()), executor)
+                .thenApply(props -> filter(props, senses));
+    }
+
+    private List<Proposition<VnClass, PropBankArg>> filter(List<Proposition<DepNode, PropBankArg>> props,
+                                                           List<SensePrediction<VnClass>> senses) {
+        Map<Integer, SensePrediction<VnClass>> sensesByIndex = senses.stream()
+                .collect(Collectors.toMap(SensePrediction::index, Function.identity()));
 
         List<Proposition<VnClass, PropBankArg>> filtered = new ArrayList<>();
         for (Proposition<DepNode, PropBankArg> prop : props) {
@@ -72,8 +111,22 @@ public class VerbNetSemParser {
             }
             filtered.add(convert(prop, sensesByIndex.get(prop.relIndex()).sense()));
         }
+        return filtered;
+    }
 
-        return aligner.align(parsed, filtered);
+    /**
+     * Align PropBank propositions to VerbNet thematic roles/frames.
+     *
+     * @param parsed    dependency parse
+     * @param props     PropBank propositions
+     * @param semantics if true, extract VerbNet semantic predicates for aligned frames
+     * @return aligned VerbNet propositions
+     */
+    public List<VerbNetProp> align(@NonNull DepTree parsed,
+                                   @NonNull List<Proposition<VnClass, PropBankArg>> props,
+                                   boolean semantics) {
+        Preconditions.checkState(null != aligner, "VerbNet alignment requires an aligner");
+        return aligner.align(parsed, props, semantics);
     }
 
 }
@@ -7,17 +7,17 @@ import org.tensorflow.example.Features;
 import org.tensorflow.example.SequenceExample;
 
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import io.github.semlink.app.TensorflowModel;
+import io.github.semlink.app.CachingSubwordTokenizer;
+import io.github.semlink.app.SubwordTokenizer;
 import io.github.semlink.app.WordPieceTokenizer;
+import io.github.semlink.tensor.SequenceExampleWriter;
 import io.github.semlink.type.HasFields;
 import lombok.NonNull;
 import lombok.Setter;
 
-import static io.github.semlink.app.TensorflowModel.fromDirectory;
 import static io.github.semlink.tensor.TensorflowFeatureUtils.int64Feature;
 import static io.github.semlink.tensor.TensorflowFeatureUtils.int64Features;
 
@@ -32,105 +32,185 @@ public class BertSrlExampleExtractor extends BertExampleExtractor {
     public static final int SEGMENT_A = 0;
     public static final int SEGMENT_B = 1;
 
+    private static final long WORD_CACHE_BYTES = 16 * 1024 * 1024;
+    private static final int WORD_CACHE_PRELOAD = 10000;
+
     /**
      * Indicates the original token index of the predicate.
      */
     @Setter
-    private String predicateIndexKey = "predicate_index";
+    protected String predicateIndexKey = "predicate_index";
     /**
      * Placeholder feature name for BERT segment IDs.
      */
     @Setter
-    private String segmentIdsKey = "bert_seg_ids";
+    protected String segmentIdsKey = "bert_seg_ids";
 
 
-    public BertSrlExampleExtractor(@NonNull WordPieceTokenizer wordPieceTokenizer) {
+    public BertSrlExampleExtractor(@NonNull SubwordTokenizer wordPieceTokenizer) {
         super(wordPieceTokenizer);
     }
 
     @Override
     public SequenceExample extractSequence(@NonNull HasFields sequence) {
-        final int predicateIndex = sequence.field(predicateIndexKey);
-        final List<String> words = sequence.field(wordsKey);
+        BertInput input = encode(sequence);
 
-        final List<String> splitTokens = new ArrayList<>();
-        final List<Integer> maskValues = new ArrayList<>();
-        final List<Integer> segmentIds = new ArrayList<>();
+        FeatureLists.Builder featureLists = FeatureLists.newBuilder()
+                // IDs for WordPiece tokens
+                .putFeatureList(bertIdsKey, int64Features(input.wordPieceIds))
+                // mask used to ignore subtokens in prediction
+                .putFeatureList(maskKey, int64Features(input.maskValues))
+                // segment ids for segment embeddings passed as inputs to BERT
+                .putFeatureList(segmentIdsKey, int64Features(input.segmentIds));
 
-        List<String> predicateSplitTokens = new ArrayList<>();
+        Features.Builder features = Features.newBuilder()
+                // index of first predicate subtoken within WordPiece tokens
+                .putFeature(predicateIndexKey, int64Feature(input.predicateIndex))
+                // length of wordpiece sequence input to BERT
+                .putFeature(bertLengthKey, int64Feature(input.wordPieceIds.length))
+                // boiler plate
+                .putFeature(lengthKey, int64Feature(input.length))
+                .putFeature(sentenceIndexKey, int64Feature(0));
 
-        // [CLS], word_1, word_2, ...
-        splitTokens.add(BERT_CLS);
-        maskValues.add(0);
-        segmentIds.add(SEGMENT_A);
+        return SequenceExample.newBuilder()
+                .setContext(features)
+                .setFeatureLists(featureLists)
+                .build();
+    }
 
-        int tokenIndex = 0; // current token index
-        for (String token : words) {
-            List<String> subtokens = wordPieceTokenizer.tokenize(token);
+    /**
+     * Writes the same features as {@link #extractSequence(HasFields)}, in the same order, without building protos.
+     */
+    @Override
+    public void writeSequence(@NonNull HasFields sequence, @NonNull SequenceExampleWriter writer) {
+        BertInput input = encode(sequence);
+
+        writer.startExample()
+                .startContext()
+                .int64Feature(predicateIndexKey, input.predicateIndex)
+                .int64Feature(bertLengthKey, input.wordPieceIds.length)
+                .int64Feature(lengthKey, input.length)
+                .int64Feature(sentenceIndexKey, 0)
+                .endContext()
+                .startFeatureLists();
+        writeFeatureList(writer, bertIdsKey, input.wordPieceIds);
+        writeFeatureList(writer, maskKey, input.maskValues);
+        writeFeatureList(writer, segmentIdsKey, input.segmentIds);
+        writer.endFeatureLists()
+                .endExample();
+    }
 
-            boolean isPredicate = predicateIndex == tokenIndex;
-            if (isPredicate) {
-                predicateSplitTokens = subtokens;
-            }
+    private static void writeFeatureList(SequenceExampleWriter writer, String key, int[] values) {
+        writer.startFeatureList(key);
+        for (int value : values) {
+            writer.int64(value);
+        }
+        writer.endFeatureList();
+    }
 
-            splitTokens.addAll(subtokens);
-            maskValues.add(1);
-            // this model indicates the focus predicate by setting the segment ID to B
-            segmentIds.add(isPredicate ? SEGMENT_B : SEGMENT_A);
+    /**
+     * Encode a sequence as BERT inputs, shared by {@link #extractSequence(HasFields)}, {@link #writeSequence} and models such as
+     * {@link BertSrlOnnxModel} that read the ID arrays directly.
+     *
+     * @param sequence input sequence
+     * @return BERT inputs
+     */
+    BertInput encode(@NonNull HasFields sequence) {
+        final int predicateIndex = sequence.intField(predicateIndexKey);
+        final List<String> words = sequence.field(wordsKey);
 
-            if (subtokens.size() > 1) {
-                maskValues.addAll(Collections.nCopies(subtokens.size() - 1, 0));
-                segmentIds.addAll(Collections.nCopies(subtokens.size() - 1, SEGMENT_A));
+        final int clsId = wordPieceTokenizer.convertTokensToIds(Collections.singletonList(BERT_CLS)).get(0);
+        final int sepId = wordPieceTokenizer.convertTokensToIds(Collections.singletonList(BERT_SEP)).get(0);
+
+        int[][] subtokenIds = new int[words.size()][];
+        int[] predicateIds = new int[0];
+        int wordPieces = 0;
+        for (int tokenIndex = 0; tokenIndex < words.size(); ++tokenIndex) {
+            subtokenIds[tokenIndex] = wordPieceTokenizer.wordPieceIds(words.get(tokenIndex));
+            if (predicateIndex == tokenIndex) {
+                predicateIds = subtokenIds[tokenIndex];
             }
+            // a word without subtokens still takes a mask value, and fails the check below
+            wordPieces += Math.max(1, subtokenIds[tokenIndex].length);
+        }
 
-            ++tokenIndex;
+        // [CLS], word pieces, [SEP], predicate word pieces, [SEP]
+        int size = 1 + wordPieces + 1 + predicateIds.length + 1;
+        BertInput input = new BertInput(predicateIndex, words.size(), size);
+        int wordPieceIndex = 0;
+        int maskIndex = 0;
+
+        // [CLS], word_1, word_2, ...
+        input.wordPieceIds[wordPieceIndex++] = clsId;
+        input.maskValues[maskIndex] = 0;
+        input.segmentIds[maskIndex++] = SEGMENT_A;
+
+        for (int tokenIndex = 0; tokenIndex < words.size(); ++tokenIndex) {
+            int[] ids = subtokenIds[tokenIndex];
+            for (int id : ids) {
+                input.wordPieceIds[wordPieceIndex++] = id;
+            }
+            input.maskValues[maskIndex] = 1;
+            // this model indicates the focus predicate by setting the segment ID to B
+            input.segmentIds[maskIndex++] = predicateIndex == tokenIndex ? SEGMENT_B : SEGMENT_A;
+            for (int i = 1; i < ids.length; ++i) {
+                input.maskValues[maskIndex] = 0;
+                input.segmentIds[maskIndex++] = SEGMENT_A;
+            }
         }
 
         // ..., word_n-1, word_n, [SEP]
-        splitTokens.add(BERT_SEP);
-        maskValues.add(0);
-        segmentIds.add(0);
+        input.wordPieceIds[wordPieceIndex++] = sepId;
+        input.maskValues[maskIndex] = 0;
+        input.segmentIds[maskIndex++] = 0;
 
         // predicate_subtoken_1, predicate_subtoken2, ..., [SEP]
-        splitTokens.addAll(predicateSplitTokens);
-        maskValues.addAll(Collections.nCopies(predicateSplitTokens.size(), 0));
-        segmentIds.addAll(Collections.nCopies(predicateSplitTokens.size(), SEGMENT_B));
+        for (int id : predicateIds) {
+            input.wordPieceIds[wordPieceIndex++] = id;
+            input.maskValues[maskIndex] = 0;
+            input.segmentIds[maskIndex++] = SEGMENT_B;
+        }
 
-        splitTokens.add(BERT_SEP);
-        maskValues.add(0);
-        segmentIds.add(SEGMENT_B);
+        input.wordPieceIds[wordPieceIndex++] = sepId;
+        input.maskValues[maskIndex] = 0;
+        input.segmentIds[maskIndex++] = SEGMENT_B;
 
-        Preconditions.checkState(splitTokens.size() == maskValues.size()
-                        && segmentIds.size() == maskValues.size(),
+        Preconditions.checkState(wordPieceIndex == maskIndex,
                 "Number of segment IDs, wordpiece IDs, and mask values do not match: %s vs. %s vs %s",
-                segmentIds.size(), splitTokens.size(), maskValues.size());
-
-        FeatureLists.Builder featureLists = FeatureLists.newBuilder()
-                // IDs for WordPiece tokens
-                .putFeatureList(bertIdsKey, int64Features(wordPieceTokenizer.convertTokensToIds(splitTokens)))
-                // mask used to ignore subtokens in prediction
-                .putFeatureList(maskKey, int64Features(maskValues))
-                // segment ids for segment embeddings passed as inputs to BERT
-                .putFeatureList(segmentIdsKey, int64Features(segmentIds));
+                maskIndex, wordPieceIndex, maskIndex);
+        return input;
+    }
 
-        Features.Builder features = Features.newBuilder()
-                // index of first predicate subtoken within WordPiece tokens
-                .putFeature(predicateIndexKey, int64Feature(predicateIndex))
-                // length of wordpiece sequence input to BERT
-                .putFeature(bertLengthKey, int64Feature(splitTokens.size()))
-                // boiler plate
-                .putFeature(lengthKey, int64Feature(words.size()))
-                .putFeature(sentenceIndexKey, int64Feature(0));
+    /**
+     * BERT inputs for a single sequence, prior to serialization.
+     */
+    static final class BertInput {
+
+        final int predicateIndex;
+        final int length;
+        final int[] wordPieceIds;
+        final int[] maskValues;
+        final int[] segmentIds;
+
+        private BertInput(int predicateIndex, int length, int size) {
+            this.predicateIndex = predicateIndex;
+            this.length = length;
+            this.wordPieceIds = new int[size];
+            this.maskValues = new int[size];
+            this.segmentIds = new int[size];
+        }
 
-        return SequenceExample.newBuilder()
-                .setContext(features)
-                .setFeatureLists(featureLists)
-                .build();
     }
 
-    public static TensorflowModel bertFromDirectory(@NonNull String modelDir) {
-        return fromDirectory(modelDir, new BertSrlExampleExtractor(
-                new WordPieceTokenizer(Paths.get(modelDir, "model", "assets", "vocab.txt").toString())));
+    /**
+     * Create an extractor using the wordpiece vocabulary of the saved model at a given model directory.
+     *
+     * @param modelDir model directory, containing the saved model in a "model" subdirectory
+     * @return BERT SRL extractor
+     */
+    public static BertSrlExampleExtractor bertExtractor(@NonNull String modelDir) {
+        WordPieceTokenizer tokenizer = new WordPieceTokenizer(Paths.get(modelDir, "model", "assets", "vocab.txt").toString());
+        return new BertSrlExampleExtractor(new CachingSubwordTokenizer(tokenizer, WORD_CACHE_BYTES, WORD_CACHE_PRELOAD));
     }
 
 }
@@ -0,0 +1,32 @@
+package io.github.semlink.parser.feat;
+
+import java.util.Map;
+
+import io.github.semlink.app.InferenceBackend;
+import io.github.semlink.app.LabelingModel;
+import lombok.NonNull;
+
+/**
+ * {@link InferenceBackend} loading BERT-based SRL models exported to ONNX (see {@link BertSrlOnnxModel}). Supported options are
+ * "modelFile" (default "model.onnx"), "labelsFile" (default "labels.txt") and "intraOpThreads".
+ *
+ * @author jamesgung
+ */
+public class BertSrlOnnxBackend implements InferenceBackend {
+
+    public static final String NAME = "onnx";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public LabelingModel load(@NonNull String modelDir, @NonNull Map<String, String> options) {
+        return BertSrlOnnxModel.fromDirectory(modelDir,
+                options.getOrDefault("modelFile", "model.onnx"),
+                options.getOrDefault("labelsFile", "labels.txt"),
+                Integer.parseInt(options.getOrDefault("intraOpThreads", "0")));
+    }
+
+}
@@ -0,0 +1,221 @@
+package io.github.semlink.parser.feat;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OnnxValue;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import io.github.semlink.app.LabelCodec;
+import io.github.semlink.app.LabelingModel;
+import io.github.semlink.parser.feat.BertSrlExampleExtractor.BertInput;
+import io.github.semlink.type.HasFields;
+import lombok.NonNull;
+
+/**
+ * {@link LabelingModel} running a BERT SRL model exported to ONNX on ONNX Runtime's CPU execution provider. Inputs are the
+ * features encoded by a {@link BertSrlExampleExtractor}, read from its ID arrays without building protos: each
+ * feature list is fed as a zero-padded {@code [batch, length]} int64 tensor, and each context feature as a {@code [batch]}
+ * int64 tensor, under the same names as the Tensorflow model's placeholders. The model outputs label indices over a label vocabulary, which are kept only at positions
+ * where the sequence mask is set (the first subtoken of each word).
+ *
+ * @author jamesgung
+ */
+public class BertSrlOnnxModel implements LabelingModel {
+
+    private final OrtEnvironment environment;
+    private final OrtSession session;
+    private final BertSrlExampleExtractor featureExtractor;
+    private final LabelCodec labelCodec;
+    // maps indices output by the model to label codec IDs
+    private final int[] labelIds;
+    private final Set<String> inputNames;
+    private final String outputName;
+
+    /**
+     * Initialize an ONNX Runtime SRL model.
+     *
+     * @param modelPath        path to ONNX model file
+     * @param labels           label vocabulary, indexed by the model's output
+     * @param featureExtractor feature extractor
+     * @param intraOpThreads   number of threads used within each op, or 0 to let ONNX Runtime choose
+     */
+    public BertSrlOnnxModel(@NonNull String modelPath,
+                            @NonNull List<String> labels,
+                            @NonNull BertSrlExampleExtractor featureExtractor,
+                            int intraOpThreads) {
+        this.environment = OrtEnvironment.getEnvironment();
+        this.featureExtractor = featureExtractor;
+        this.labelCodec = new LabelCodec(LabelCodec.IGNORE_LABEL, labels);
+        this.labelIds = labels.stream().mapToInt(labelCodec::id).toArray();
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            if (intraOpThreads > 0) {
+                options.setIntraOpNumThreads(intraOpThreads);
+            }
+            this.session = environment.createSession(modelPath, options);
+            this.inputNames = session.getInputNames();
+            this.outputName = session.getOutputNames().iterator().next();
+        } catch (OrtException e) {
+            throw new IllegalStateException("Unable to load ONNX model at " + modelPath, e);
+        }
+    }
+
+    /**
+     * Load a model from a directory containing an ONNX model file, a label vocabulary (one label per line) and the BERT
+     * vocabulary used by the corresponding Tensorflow model.
+     *
+     * @param modelDir       model directory
+     * @param modelFile      ONNX model file name, relative to the model directory
+     * @param labelsFile     label vocabulary file name, relative to the model directory
+     * @param intraOpThreads number of threads used within each op, or 0 to let ONNX Runtime choose
+     * @return ONNX Runtime SRL model
+     */
+    public static BertSrlOnnxModel fromDirectory(@NonNull String modelDir,
+                                                 @NonNull String modelFile,
+                                                 @NonNull String labelsFile,
+                                                 int intraOpThreads) {
+        try {
+            List<String> labels = Files.readAllLines(Paths.get(modelDir, labelsFile), StandardCharsets.UTF_8).stream()
+                    .filter(line -> !line.isEmpty())
+                    .collect(Collectors.toList());
+            return new BertSrlOnnxModel(Paths.get(modelDir, modelFile).toString(), labels,
+                    BertSrlExampleExtractor.bertExtractor(modelDir), intraOpThreads);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read label vocabulary from " + modelDir, e);
+        }
+    }
+
+    @Override
+    public List<String> predict(@NonNull HasFields input) {
+        return predictBatch(Collections.singletonList(input)).get(0);
+    }
+
+    @Override
+    public List<List<String>> predictBatch(@NonNull List<HasFields> inputs) {
+        return predictLabelIds(inputs).stream()
+                .map(labelCodec::labels)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<int[]> predictLabelIds(@NonNull List<HasFields> inputs) {
+        if (inputs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<BertInput> encoded = new ArrayList<>(inputs.size());
+        for (HasFields input : inputs) {
+            encoded.add(featureExtractor.encode(input));
+        }
+
+        Map<String, OnnxTensor> feeds = new HashMap<>();
+        try {
+            createFeeds(encoded, feeds);
+            try (OrtSession.Result result = session.run(feeds)) {
+                OnnxValue output = result.get(outputName)
+                        .orElseThrow(() -> new IllegalStateException("Missing model output " + outputName));
+                return decode(encoded, output.getValue());
+            }
+        } catch (OrtException e) {
+            throw new IllegalStateException("ONNX Runtime inference failed", e);
+        } finally {
+            feeds.values().forEach(OnnxTensor::close);
+        }
+    }
+
+    private void createFeeds(List<BertInput> inputs, Map<String, OnnxTensor> feeds) throws OrtException {
+        int maxLength = 0;
+        for (BertInput input : inputs) {
+            maxLength = Math.max(maxLength, input.wordPieceIds.length);
+        }
+        feedSequences(feeds, featureExtractor.bertIdsKey, inputs, maxLength, input -> input.wordPieceIds);
+        feedSequences(feeds, featureExtractor.maskKey, inputs, maxLength, input -> input.maskValues);
+        feedSequences(feeds, featureExtractor.segmentIdsKey, inputs, maxLength, input -> input.segmentIds);
+
+        feedContext(feeds, featureExtractor.predicateIndexKey, inputs, input -> input.predicateIndex);
+        feedContext(feeds, featureExtractor.bertLengthKey, inputs, input -> input.wordPieceIds.length);
+        feedContext(feeds, featureExtractor.lengthKey, inputs, input -> input.length);
+        feedContext(feeds, featureExtractor.sentenceIndexKey, inputs, input -> 0);
+    }
+
+    private void feedSequences(Map<String, OnnxTensor> feeds, String key, List<BertInput> inputs, int maxLength,
+                               Function<BertInput, int[]> sequence) throws OrtException {
+        if (!inputNames.contains(key)) {
+            return;
+        }
+        // zero-padded to the longest sequence in the batch
+        LongBuffer values = LongBuffer.allocate(inputs.size() * maxLength);
+        for (int i = 0; i < inputs.size(); ++i) {
+            values.position(i * maxLength);
+            for (int value : sequence.apply(inputs.get(i))) {
+                values.put(value);
+            }
+        }
+        values.rewind();
+        feeds.put(key, OnnxTensor.createTensor(environment, values, new long[]{inputs.size(), maxLength}));
+    }
+
+    private void feedContext(Map<String, OnnxTensor> feeds, String key, List<BertInput> inputs,
+                             ToIntFunction<BertInput> feature) throws OrtException {
+        if (!inputNames.contains(key)) {
+            return;
+        }
+        LongBuffer values = LongBuffer.allocate(inputs.size());
+        for (BertInput input : inputs) {
+            values.put(feature.applyAsInt(input));
+        }
+        values.rewind();
+        feeds.put(key, OnnxTensor.createTensor(environment, values, new long[]{inputs.size()}));
+    }
+
+    private List<int[]> decode(List<BertInput> inputs, Object output) {
+        Preconditions.checkState(output instanceof long[][] || output instanceof int[][],
+                "Expected a rank 2 integer output, was %s", output.getClass());
+        List<int[]> result = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); ++i) {
+            BertInput input = inputs.get(i);
+            // one label per word, at the position of its first subtoken
+            int[] ids = new int[input.length];
+            int index = 0;
+            for (int j = 0; j < input.maskValues.length; ++j) {
+                if (input.maskValues[j] == 1) {
+                    int label = output instanceof long[][] ? (int) ((long[][]) output)[i][j] : ((int[][]) output)[i][j];
+                    ids[index++] = labelIds[label];
+                }
+            }
+            result.add(ids);
+        }
+        return result;
+    }
+
+    @Override
+    public LabelCodec labelCodec() {
+        return labelCodec;
+    }
+
+    @Override
+    public void close() {
+        try {
+            session.close();
+        } catch (OrtException e) {
+            throw new IllegalStateException("Unable to close ONNX Runtime session", e);
+        }
+    }
+
+}
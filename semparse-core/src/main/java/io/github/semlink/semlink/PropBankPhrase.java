@@ -23,6 +23,7 @@ import java.util.Objects;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.semlink.app.Span;
+import io.github.semlink.parser.ColumnarDepTree;
 import io.github.semlink.parser.Proposition;
 import io.github.semlink.propbank.type.PropBankArg;
 import lombok.Getter;
@@ -40,40 +41,53 @@ import lombok.experimental.Delegate;
 public class PropBankPhrase extends AlignPhrase {
 
     private Span<PropBankArg> span;
-    private DepTree parse;
+    private ColumnarDepTree columns;
     @Delegate
     private PropBankArg argument;
 
-    public PropBankPhrase(int index, Span<PropBankArg> span, DepTree parse) {
+    public PropBankPhrase(int index, Span<PropBankArg> span, ColumnarDepTree columns) {
         super(index);
         this.span = span;
-        this.parse = parse;
+        this.columns = columns;
         this.argument = span.label();
     }
 
+    public PropBankPhrase(int index, Span<PropBankArg> span, DepTree parse) {
+        this(index, span, ColumnarDepTree.of(parse));
+    }
+
+    public DepTree parse() {
+        return columns.tree();
+    }
+
     public List<DepNode> tokens() {
-        return span.get(parse.tokens());
+        return span.get(parse().tokens());
     }
 
     public DepNode start() {
-        return parse.get(span.startIndex());
+        return parse().get(span.startIndex());
     }
 
     public DepNode end() {
-        return parse.get(span.endIndex());
+        return parse().get(span.endIndex());
     }
 
     public static List<PropBankPhrase> fromProp(@NonNull Proposition<?, PropBankArg> proposition, @NonNull DepTree parse) {
+        return fromProp(proposition, ColumnarDepTree.of(parse));
+    }
+
+    public static List<PropBankPhrase> fromProp(@NonNull Proposition<?, PropBankArg> proposition,
+                                                @NonNull ColumnarDepTree columns) {
         List<PropBankPhrase> result = new ArrayList<>();
         for (Span<PropBankArg> span : proposition.arguments().spans()) {
-            result.add(new PropBankPhrase(result.size(), span, parse));
+            result.add(new PropBankPhrase(result.size(), span, columns));
         }
         return result;
     }
 
     @Override
     public String toString() {
-        return span.toString(parse);
+        return span.toString(parse());
     }
 
     @Override
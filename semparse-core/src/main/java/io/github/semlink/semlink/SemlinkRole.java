@@ -19,10 +19,8 @@ package io.github.semlink.semlink;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
-import io.github.semlink.app.DefaultChunking;
-import io.github.semlink.app.Span;
+import io.github.semlink.app.IndexedChunking;
 import io.github.semlink.parser.Proposition;
 import io.github.semlink.propbank.frames.PbRole;
 import io.github.semlink.propbank.type.PropBankArg;
@@ -70,10 +68,9 @@ public class SemlinkRole {
     }
 
     public static <R> Proposition<R, SemlinkRole> convert(@NonNull Proposition<R, PropBankArg> proposition) {
-        List<Span<SemlinkRole>> roleSpans = proposition.arguments().spans().stream()
-                .map(span -> Span.convert(span, of(span.label())))
-                .collect(Collectors.toList());
-        return new Proposition<>(proposition.relIndex(), proposition.predicate(), new DefaultChunking<>(roleSpans));
+        // one role per span, as roles are updated individually during alignment
+        return new Proposition<>(proposition.relIndex(), proposition.predicate(),
+                IndexedChunking.map(proposition.arguments(), SemlinkRole::of));
     }
 
     @Override
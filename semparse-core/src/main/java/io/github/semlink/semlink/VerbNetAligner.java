@@ -30,8 +30,8 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import io.github.clearwsd.type.DepTree;
-import io.github.clearwsd.type.FeatureType;
 import io.github.semlink.app.Span;
+import io.github.semlink.parser.ColumnarDepTree;
 import io.github.semlink.parser.DefaultVerbNetProp;
 import io.github.semlink.parser.Proposition;
 import io.github.semlink.parser.VerbNetProp;
@@ -88,18 +88,32 @@ public class VerbNetAligner {
 
     public List<VerbNetProp> align(@NonNull DepTree parsed,
                                    @NonNull List<Proposition<VnClass, PropBankArg>> props) {
+        return align(parsed, props, true);
+    }
+
+    /**
+     * Align PropBank propositions with VerbNet thematic roles.
+     *
+     * @param parsed    dependency parse
+     * @param props     PropBank propositions with VerbNet classes as predicates
+     * @param semantics if false, skip extraction of {@link io.github.semlink.verbnet.semantics.SemanticPredicate semantic
+     *                  predicates}
+     * @return aligned VerbNet propositions
+     */
+    public List<VerbNetProp> align(@NonNull DepTree parsed,
+                                   @NonNull List<Proposition<VnClass, PropBankArg>> props,
+                                   boolean semantics) {
+        ColumnarDepTree columns = ColumnarDepTree.of(parsed);
         return props.stream()
                 .filter(prop -> null != prop.predicate())
-                .map(prop -> alignProp(prop, parsed))
+                .map(prop -> alignProp(prop, columns, semantics))
                 .collect(Collectors.toList());
     }
 
-    private VerbNetProp alignProp(Proposition<VnClass, PropBankArg> prop, DepTree parsed) {
-        List<String> tokens = parsed.stream().map(node -> (String) node.feature(FeatureType.Text)).collect(Collectors.toList());
-
+    private VerbNetProp alignProp(Proposition<VnClass, PropBankArg> prop, ColumnarDepTree parsed, boolean semantics) {
         DefaultVerbNetProp vnProp = new DefaultVerbNetProp()
                 .proposition(SemlinkRole.convert(prop))
-                .tokens(tokens);
+                .tokens(parsed.words());
 
         align(prop, parsed).ifPresent(aligned -> {
             // get thematic role alignment
@@ -129,7 +143,10 @@ public class VerbNetAligner {
                 }
 
             }
-            String lemma = parsed.get(prop.relIndex()).feature(FeatureType.Lemma);
+            if (!semantics) {
+                return;
+            }
+            String lemma = parsed.lemma(prop.relIndex());
             // get semantic predicates
             vnProp.predicates(predicateExtractor.parsePredicates(aligned.alignment(), aligned.frame(),
                     prop.predicate(), lemma));
@@ -156,13 +173,13 @@ public class VerbNetAligner {
         return pbVnAlignment;
     }
 
-    private Optional<PbVnAlignment> align(Proposition<VnClass, PropBankArg> prop, DepTree source) {
+    private Optional<PbVnAlignment> align(Proposition<VnClass, PropBankArg> prop, ColumnarDepTree source) {
 
         List<PropBankPhrase> phrases = PropBankPhrase.fromProp(prop, source);
 
         List<PbVnAlignment> alignments = new ArrayList<>();
 
-        String lemma = source.get(prop.relSpan().startIndex()).feature(FeatureType.Lemma);
+        String lemma = source.lemma(prop.relSpan().startIndex());
         List<MappedRoleset> rolesets = prop.predicate().related().stream()
                 .map(s -> mappings.rolesets(lemma, s.verbNetId().classId()))
                 .flatMap(List::stream)
@@ -25,6 +25,7 @@ import java.util.Set;
 
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.FeatureType;
+import io.github.semlink.parser.ColumnarDepTree;
 import io.github.semlink.semlink.PropBankPhrase;
 import io.github.semlink.verbnet.type.PrepType;
 import lombok.AccessLevel;
@@ -39,6 +40,8 @@ import lombok.NonNull;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class AlignmentUtils {
 
+    private static final Set<String> CLAUSE_LABELS = ImmutableSet.of("advcl", "acl", "csubj", "ccomp", "xcomp");
+
     /**
      * Return the head from a phrase of {@link DepNode dependency nodes}.
      *
@@ -64,19 +67,39 @@ public final class AlignmentUtils {
      */
     public static boolean isClause(@NonNull List<DepNode> phrase) {
         DepNode node = getHead(phrase);
-        Set<String> clauseLabels = ImmutableSet.of("advcl", "acl", "csubj", "ccomp", "xcomp");
         String label = node.feature(FeatureType.Dep);
-        return clauseLabels.contains(label);
+        return CLAUSE_LABELS.contains(label);
+    }
+
+    /**
+     * Returns whether or not a given {@link PropBankPhrase} is a clause, reading its tree's columns.
+     */
+    public static boolean isClause(@NonNull PropBankPhrase phrase) {
+        int head = phrase.columns().phraseHead(phrase.span().startIndex(), phrase.span().endIndex());
+        return CLAUSE_LABELS.contains(phrase.columns().dep(head));
     }
 
     /**
      * Return the {@link PrepType} if present from a given {@link PropBankPhrase}.
      */
     public static Optional<PrepType> getPrep(@NonNull List<DepNode> tokens) {
-        String startText = tokens.get(0).feature(FeatureType.Text);
-        if (tokens.size() > 1) {
+        return getPrep(tokens.get(0).feature(FeatureType.Text),
+                tokens.size() > 1 ? tokens.get(1).feature(FeatureType.Text) : null);
+    }
+
+    /**
+     * Return the {@link PrepType} if present from a given {@link PropBankPhrase}, reading its tree's columns.
+     */
+    public static Optional<PrepType> getPrep(@NonNull PropBankPhrase phrase) {
+        int start = phrase.span().startIndex();
+        ColumnarDepTree columns = phrase.columns();
+        return getPrep(columns.text(start), phrase.span().endIndex() > start ? columns.text(start + 1) : null);
+    }
+
+    private static Optional<PrepType> getPrep(String startText, String nextText) {
+        if (null != nextText) {
             // e.g. "out of" or "in between"
-            String concatenated = startText + "_" + tokens.get(1).feature(FeatureType.Text);
+            String concatenated = startText + "_" + nextText;
             try {
                 return Optional.of(PrepType.valueOf(concatenated.toUpperCase()));
             } catch (Exception ignored) {
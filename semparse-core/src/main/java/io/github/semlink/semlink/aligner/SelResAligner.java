@@ -26,8 +26,7 @@ import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import io.github.clearwsd.type.DepNode;
-import io.github.clearwsd.type.FeatureType;
+import io.github.semlink.parser.ColumnarDepTree;
 import io.github.semlink.propbank.type.ArgNumber;
 import io.github.semlink.propbank.type.FunctionTag;
 import io.github.semlink.semlink.PropBankPhrase;
@@ -115,7 +114,7 @@ public class SelResAligner implements PbVnAligner {
 
     public static Multiset<ThematicRoleType> getThematicRolesGreedy(@NonNull PropBankPhrase phrase) {
         Multiset<ThematicRoleType> themRoles = getThematicRolesStrict(phrase);
-        Optional<PrepType> prep = getPrep(phrase.tokens());
+        Optional<PrepType> prep = getPrep(phrase);
 
         boolean possibleLocation = !ImmutableSet.of(FunctionTag.PRP, FunctionTag.MNR).contains(phrase.argument().getFunctionTag());
         if (prep.isPresent()) {
@@ -144,18 +143,15 @@ public class SelResAligner implements PbVnAligner {
 
     public static Multiset<ThematicRoleType> getThematicRolesStrict(@NonNull PropBankPhrase phrase) {
         Multiset<ThematicRoleType> themRoles = TreeMultiset.create();
-        Optional<PrepType> prep = getPrep(phrase.tokens());
+        Optional<PrepType> prep = getPrep(phrase);
 
-        String text = phrase.tokens().stream()
-                .map(token -> token.feature(FeatureType.Text).toString())
-                .collect(Collectors.joining(" "))
-                .toLowerCase();
+        String text = phraseText(phrase).toLowerCase();
 
         if (text.equalsIgnoreCase("how much") || text.equalsIgnoreCase("how much money")) {
             themRoles.add(ASSET);
         }
 
-        boolean isClause = AlignmentUtils.isClause(phrase.tokens());
+        boolean isClause = AlignmentUtils.isClause(phrase);
 
         // preposition heuristics
         if (prep.isPresent()) {
@@ -256,20 +252,33 @@ public class SelResAligner implements PbVnAligner {
     }
 
     public static boolean containsNumber(PropBankPhrase phrase) {
-        for (DepNode node : phrase.tokens()) {
-            if ("CD".equalsIgnoreCase(node.feature(FeatureType.Pos)) || "much".equalsIgnoreCase(node.feature(FeatureType.Text))) {
+        ColumnarDepTree columns = phrase.columns();
+        for (int i = phrase.span().startIndex(); i <= phrase.span().endIndex(); ++i) {
+            if ("CD".equalsIgnoreCase(columns.pos(i)) || "much".equalsIgnoreCase(columns.text(i))) {
                 return true;
             }
         }
         return false;
     }
 
+    private static String phraseText(PropBankPhrase phrase) {
+        ColumnarDepTree columns = phrase.columns();
+        StringBuilder text = new StringBuilder();
+        for (int i = phrase.span().startIndex(); i <= phrase.span().endIndex(); ++i) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(columns.text(i));
+        }
+        return text.toString();
+    }
+
     private static boolean startsWithWhere(PropBankPhrase phrase) {
         return getFirstLemma(phrase).equalsIgnoreCase("where");
     }
 
     private static String getFirstLemma(PropBankPhrase phrase) {
-        return phrase.start().feature(FeatureType.Lemma);
+        return phrase.columns().lemma(phrase.span().startIndex());
     }
 
 }
@@ -42,7 +42,7 @@ public class SynResAligner implements PbVnAligner {
     }
 
     private void filterInvalid(@NonNull PbVnAlignment alignment, @NonNull PropBankPhrase pbPhrase) {
-        Optional<PrepType> prep = getPrep(pbPhrase.tokens());
+        Optional<PrepType> prep = getPrep(pbPhrase);
         if (!prep.isPresent()) {
             return;
         }
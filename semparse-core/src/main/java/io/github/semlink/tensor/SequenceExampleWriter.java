@@ -0,0 +1,430 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tensor;
+
+import com.google.common.base.Preconditions;
+import com.google.protobuf.ByteString;
+
+import org.tensorflow.example.BytesList;
+import org.tensorflow.example.Feature;
+import org.tensorflow.example.FeatureList;
+import org.tensorflow.example.FloatList;
+import org.tensorflow.example.Int64List;
+import org.tensorflow.example.SequenceExample;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.NonNull;
+
+/**
+ * Streaming encoder writing {@link SequenceExample} protos in the protobuf wire format directly into a reusable buffer, without
+ * building intermediate proto objects. The output is byte-for-byte identical to {@link SequenceExample#toByteArray()} for the
+ * equivalent proto built with the generated builders: fields are written in field number order, map entries in insertion order
+ * with both key and value, and int64 and float lists packed.
+ * <p>
+ * Examples are written by nesting calls, e.g. {@code startExample()}, {@code startContext()}, {@code int64Feature(..)}, ...,
+ * {@code endContext()}, {@code startFeatureLists()}, {@code startFeatureList(..)}, {@code int64(..)}, ...,
+ * {@code endFeatureList()}, {@code endFeatureLists()}, {@code endExample()}. Nested messages are written with a one byte length
+ * prefix, which is widened after the fact for messages of 128 bytes or more. Not thread-safe.
+ *
+ * @author jgung
+ */
+public final class SequenceExampleWriter {
+
+    // SequenceExample
+    private static final int CONTEXT_TAG = 0x0A;
+    private static final int FEATURE_LISTS_TAG = 0x12;
+    // Features and FeatureLists map entries, and map entry fields
+    private static final int ENTRY_TAG = 0x0A;
+    private static final int KEY_TAG = 0x0A;
+    private static final int VALUE_TAG = 0x12;
+    // FeatureList
+    private static final int FEATURE_TAG = 0x0A;
+    // Feature
+    private static final int BYTES_LIST_TAG = 0x0A;
+    private static final int FLOAT_LIST_TAG = 0x12;
+    private static final int INT64_LIST_TAG = 0x1A;
+    // BytesList, FloatList and Int64List
+    private static final int VALUE_LIST_TAG = 0x0A;
+
+    private static final int MAX_DEPTH = 8;
+
+    private byte[] buffer;
+    private int position;
+    private final int[] starts = new int[MAX_DEPTH];
+    private int depth;
+    private int exampleStart = -1;
+    private int[] exampleEnds = new int[16];
+    private int examples;
+    private final Map<String, byte[]> keys = new HashMap<>();
+
+    public SequenceExampleWriter(int initialCapacity) {
+        Preconditions.checkArgument(initialCapacity > 0, "Initial capacity must be positive: %s", initialCapacity);
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public SequenceExampleWriter() {
+        this(4096);
+    }
+
+    /**
+     * Discard all written examples, keeping the allocated buffer.
+     */
+    public SequenceExampleWriter reset() {
+        position = 0;
+        depth = 0;
+        exampleStart = -1;
+        examples = 0;
+        return this;
+    }
+
+    /**
+     * Number of completed examples.
+     */
+    public int size() {
+        return examples;
+    }
+
+    /**
+     * Return the serialized bytes of each completed example, in the order written.
+     */
+    public byte[][] examples() {
+        Preconditions.checkState(exampleStart < 0, "Example in progress");
+        byte[][] result = new byte[examples][];
+        int start = 0;
+        for (int i = 0; i < examples; ++i) {
+            result[i] = Arrays.copyOfRange(buffer, start, exampleEnds[i]);
+            start = exampleEnds[i];
+        }
+        return result;
+    }
+
+    /**
+     * Serialize a sequence example built with the generated builders.
+     */
+    public SequenceExampleWriter write(@NonNull SequenceExample example) {
+        startExample();
+        if (example.hasContext()) {
+            startContext();
+            for (Map.Entry<String, Feature> entry : example.getContext().getFeatureMap().entrySet()) {
+                startEntry(entry.getKey());
+                writeFeature(entry.getValue());
+                end();
+                end();
+            }
+            endContext();
+        }
+        if (example.hasFeatureLists()) {
+            startFeatureLists();
+            for (Map.Entry<String, FeatureList> entry : example.getFeatureLists().getFeatureListMap().entrySet()) {
+                startFeatureList(entry.getKey());
+                for (Feature feature : entry.getValue().getFeatureList()) {
+                    begin(FEATURE_TAG);
+                    writeFeature(feature);
+                    end();
+                }
+                endFeatureList();
+            }
+            endFeatureLists();
+        }
+        return endExample();
+    }
+
+    public SequenceExampleWriter startExample() {
+        Preconditions.checkState(exampleStart < 0, "Example already in progress");
+        exampleStart = position;
+        return this;
+    }
+
+    public SequenceExampleWriter endExample() {
+        Preconditions.checkState(exampleStart >= 0 && depth == 0, "No example in progress, or unclosed fields");
+        if (examples == exampleEnds.length) {
+            exampleEnds = Arrays.copyOf(exampleEnds, 2 * examples);
+        }
+        exampleEnds[examples++] = position;
+        exampleStart = -1;
+        return this;
+    }
+
+    public SequenceExampleWriter startContext() {
+        return begin(CONTEXT_TAG);
+    }
+
+    public SequenceExampleWriter endContext() {
+        return end();
+    }
+
+    /**
+     * Write a context feature with a single int64 value.
+     */
+    public SequenceExampleWriter int64Feature(@NonNull String key, long value) {
+        startEntry(key);
+        writeInt64(value);
+        end();
+        return end();
+    }
+
+    /**
+     * Write a context feature built with the generated builders.
+     */
+    public SequenceExampleWriter contextFeature(@NonNull String key, @NonNull Feature feature) {
+        startEntry(key);
+        writeFeature(feature);
+        end();
+        return end();
+    }
+
+    public SequenceExampleWriter startFeatureLists() {
+        return begin(FEATURE_LISTS_TAG);
+    }
+
+    public SequenceExampleWriter endFeatureLists() {
+        return end();
+    }
+
+    /**
+     * Start a feature list with a given key, followed by its features.
+     */
+    public SequenceExampleWriter startFeatureList(@NonNull String key) {
+        return startEntry(key);
+    }
+
+    public SequenceExampleWriter endFeatureList() {
+        end();
+        return end();
+    }
+
+    /**
+     * Write a feature with a single int64 value to the current feature list.
+     */
+    public SequenceExampleWriter int64(long value) {
+        begin(FEATURE_TAG);
+        writeInt64(value);
+        return end();
+    }
+
+    /**
+     * Write a feature with a single bytes value to the current feature list.
+     */
+    public SequenceExampleWriter bytes(@NonNull ByteString value) {
+        begin(FEATURE_TAG);
+        begin(BYTES_LIST_TAG);
+        writeBytes(VALUE_LIST_TAG, value);
+        end();
+        return end();
+    }
+
+    /**
+     * Start a feature with a list of bytes values in the current feature list, followed by its values.
+     */
+    public SequenceExampleWriter startBytesFeature() {
+        begin(FEATURE_TAG);
+        return begin(BYTES_LIST_TAG);
+    }
+
+    /**
+     * Write a value to the current bytes feature.
+     */
+    public SequenceExampleWriter bytesValue(@NonNull ByteString value) {
+        writeBytes(VALUE_LIST_TAG, value);
+        return this;
+    }
+
+    /**
+     * Write the UTF-8 encoding of a single code point as a value of the current bytes feature. Surrogate code points are
+     * encoded as '?', as by {@link ByteString#copyFromUtf8(String)}.
+     */
+    public SequenceExampleWriter utf8Value(int codePoint) {
+        writeVarint(VALUE_LIST_TAG);
+        ensureCapacity(5);
+        if (codePoint < 0x80) {
+            buffer[position++] = 1;
+            buffer[position++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            buffer[position++] = 2;
+            buffer[position++] = (byte) (0xC0 | (codePoint >>> 6));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate((char) codePoint) && codePoint <= Character.MAX_VALUE) {
+            buffer[position++] = 1;
+            buffer[position++] = '?';
+        } else if (codePoint < 0x10000) {
+            buffer[position++] = 3;
+            buffer[position++] = (byte) (0xE0 | (codePoint >>> 12));
+            buffer[position++] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            buffer[position++] = 4;
+            buffer[position++] = (byte) (0xF0 | (codePoint >>> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >>> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+        return this;
+    }
+
+    public SequenceExampleWriter endBytesFeature() {
+        end();
+        return end();
+    }
+
+    /**
+     * Write a feature built with the generated builders to the current feature list.
+     */
+    public SequenceExampleWriter feature(@NonNull Feature feature) {
+        begin(FEATURE_TAG);
+        writeFeature(feature);
+        return end();
+    }
+
+    private SequenceExampleWriter startEntry(String key) {
+        begin(ENTRY_TAG);
+        byte[] keyBytes = keys.computeIfAbsent(key, k -> k.getBytes(StandardCharsets.UTF_8));
+        writeVarint(KEY_TAG);
+        writeVarint(keyBytes.length);
+        writeRaw(keyBytes, 0, keyBytes.length);
+        return begin(VALUE_TAG);
+    }
+
+    private void writeInt64(long value) {
+        begin(INT64_LIST_TAG);
+        writeVarint(VALUE_LIST_TAG);
+        writeVarint(varintSize(value));
+        writeVarint(value);
+        end();
+    }
+
+    private void writeFeature(Feature feature) {
+        switch (feature.getKindCase()) {
+            case BYTES_LIST:
+                BytesList bytesList = feature.getBytesList();
+                begin(BYTES_LIST_TAG);
+                for (ByteString value : bytesList.getValueList()) {
+                    writeBytes(VALUE_LIST_TAG, value);
+                }
+                end();
+                break;
+            case FLOAT_LIST:
+                FloatList floatList = feature.getFloatList();
+                begin(FLOAT_LIST_TAG);
+                if (floatList.getValueCount() > 0) {
+                    writeVarint(VALUE_LIST_TAG);
+                    writeVarint(floatList.getValueCount() * Float.BYTES);
+                    for (int i = 0; i < floatList.getValueCount(); ++i) {
+                        writeFixed32(Float.floatToRawIntBits(floatList.getValue(i)));
+                    }
+                }
+                end();
+                break;
+            case INT64_LIST:
+                Int64List int64List = feature.getInt64List();
+                begin(INT64_LIST_TAG);
+                if (int64List.getValueCount() > 0) {
+                    begin(VALUE_LIST_TAG);
+                    for (int i = 0; i < int64List.getValueCount(); ++i) {
+                        writeVarint(int64List.getValue(i));
+                    }
+                    end();
+                }
+                end();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Start a length-delimited field, reserving a single byte for its length.
+     */
+    private SequenceExampleWriter begin(int tag) {
+        Preconditions.checkState(exampleStart >= 0, "No example in progress");
+        Preconditions.checkState(depth < MAX_DEPTH, "Maximum nesting depth exceeded");
+        writeVarint(tag);
+        ensureCapacity(1);
+        starts[depth++] = position++;
+        return this;
+    }
+
+    /**
+     * End the innermost length-delimited field, writing its length and widening the length prefix if needed.
+     */
+    private SequenceExampleWriter end() {
+        Preconditions.checkState(depth > 0, "No field in progress");
+        int start = starts[--depth];
+        int length = position - start - 1;
+        int size = varintSize(length);
+        if (size > 1) {
+            ensureCapacity(size - 1);
+            System.arraycopy(buffer, start + 1, buffer, start + size, length);
+            position += size - 1;
+        }
+        int end = position;
+        position = start;
+        writeVarint(length);
+        position = end;
+        return this;
+    }
+
+    private void writeBytes(int tag, ByteString value) {
+        writeVarint(tag);
+        writeVarint(value.size());
+        ensureCapacity(value.size());
+        value.copyTo(buffer, position);
+        position += value.size();
+    }
+
+    private void writeRaw(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void writeFixed32(int value) {
+        ensureCapacity(Integer.BYTES);
+        buffer[position++] = (byte) value;
+        buffer[position++] = (byte) (value >> 8);
+        buffer[position++] = (byte) (value >> 16);
+        buffer[position++] = (byte) (value >> 24);
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            ++size;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, position + bytes));
+        }
+    }
+
+}
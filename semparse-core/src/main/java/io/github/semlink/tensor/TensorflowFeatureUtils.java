@@ -36,6 +36,15 @@ public final class TensorflowFeatureUtils {
         return builder.build();
     }
 
+    public static FeatureList int64Features(@NonNull int[] features) {
+        FeatureList.Builder builder = FeatureList.newBuilder();
+        for (int val : features) {
+            builder.addFeature(Feature.newBuilder().setInt64List(org.tensorflow.example.Int64List.newBuilder()
+                .addValue(val)));
+        }
+        return builder.build();
+    }
+
     public static FeatureList stringFeatures(@NonNull List<String> features) {
         FeatureList.Builder builder = FeatureList.newBuilder();
         features.stream()
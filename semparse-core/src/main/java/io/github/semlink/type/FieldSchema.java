@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.type;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.NonNull;
+
+/**
+ * Fixed set of field keys, each assigned a slot index. Keys are resolved to slots once, e.g. when a model is configured, and
+ * {@link SchemaFields} instances then store values in arrays indexed by slot rather than in per-instance hash maps.
+ *
+ * @author jgung
+ */
+public final class FieldSchema {
+
+    private final String[] keys;
+
+    private FieldSchema(String[] keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Create a schema with the given distinct keys, assigned slots in order.
+     */
+    public static FieldSchema of(@NonNull String... keys) {
+        for (int i = 0; i < keys.length; ++i) {
+            Preconditions.checkArgument(null != keys[i], "Null field key");
+            for (int j = 0; j < i; ++j) {
+                Preconditions.checkArgument(!keys[i].equals(keys[j]), "Duplicate field key: %s", keys[i]);
+            }
+        }
+        return new FieldSchema(keys.clone());
+    }
+
+    /**
+     * Return the slot of a given key, or -1 if the key is not part of this schema. Schemas are small, so keys are compared
+     * linearly, by reference first.
+     *
+     * @param key field key
+     * @return slot index, or -1
+     */
+    public int slot(@NonNull String key) {
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the slot of a given key, failing if the key is not part of this schema.
+     */
+    public int requireSlot(@NonNull String key) {
+        int slot = slot(key);
+        Preconditions.checkArgument(slot >= 0, "Field \"%s\" not found in schema %s", key, this);
+        return slot;
+    }
+
+    /**
+     * Key at a given slot.
+     */
+    public String key(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Number of slots.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    public List<String> keys() {
+        return Arrays.asList(keys.clone());
+    }
+
+    /**
+     * Create an empty field container for this schema.
+     */
+    public SchemaFields newFields() {
+        return new SchemaFields(this);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(keys);
+    }
+
+}
@@ -46,6 +46,21 @@ public interface HasFields {
      */
     <T> T field(@NonNull Enum key);
 
+    /**
+     * Return the value for a given int field on this token. Implementations with primitive storage avoid boxing.
+     *
+     * @param key field key
+     * @return field value
+     * @throws IllegalArgumentException if the field is missing
+     */
+    default int intField(@NonNull String key) {
+        Integer value = field(key);
+        if (null == value) {
+            throw new IllegalArgumentException(String.format("Missing field \"%s\"", key));
+        }
+        return value;
+    }
+
     boolean hasFields(@NonNull EnumSet<?> keys);
 
     boolean hasFields(@NonNull String... keys);
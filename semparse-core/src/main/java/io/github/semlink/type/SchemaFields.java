@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.type;
+
+import java.util.EnumSet;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+/**
+ * Array-backed {@link HasFields} implementation over a {@link FieldSchema}. Values are stored by slot, with primitive storage
+ * for int fields, so that callers holding resolved slots avoid key lookups, casts and boxing.
+ *
+ * @author jgung
+ */
+@Accessors(fluent = true)
+public class SchemaFields implements HasFields {
+
+    private static final byte UNSET = 0;
+    private static final byte OBJECT = 1;
+    private static final byte INT = 2;
+
+    @Getter
+    private final FieldSchema schema;
+    private final Object[] values;
+    private final int[] ints;
+    private final byte[] kinds;
+
+    SchemaFields(@NonNull FieldSchema schema) {
+        this.schema = schema;
+        this.values = new Object[schema.size()];
+        this.ints = new int[schema.size()];
+        this.kinds = new byte[schema.size()];
+    }
+
+    /**
+     * Set the value at a given slot.
+     */
+    public SchemaFields set(int slot, Object value) {
+        values[slot] = value;
+        kinds[slot] = null == value ? UNSET : OBJECT;
+        return this;
+    }
+
+    /**
+     * Set an int value at a given slot.
+     */
+    public SchemaFields setInt(int slot, int value) {
+        values[slot] = null;
+        ints[slot] = value;
+        kinds[slot] = INT;
+        return this;
+    }
+
+    /**
+     * Return the value at a given slot, or null if not set. Int values are boxed.
+     */
+    public <T> T get(int slot) {
+        switch (kinds[slot]) {
+            case INT:
+                //noinspection unchecked
+                return (T) Integer.valueOf(ints[slot]);
+            case OBJECT:
+                //noinspection unchecked
+                return (T) values[slot];
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Return the int value at a given slot.
+     *
+     * @throws IllegalArgumentException if the slot is not set
+     */
+    public int getInt(int slot) {
+        switch (kinds[slot]) {
+            case INT:
+                return ints[slot];
+            case OBJECT:
+                return (Integer) values[slot];
+            default:
+                throw new IllegalArgumentException(String.format("Missing field \"%s\"", schema.key(slot)));
+        }
+    }
+
+    @Override
+    public <T> T field(@NonNull String key) {
+        int slot = schema.slot(key);
+        return slot < 0 ? null : get(slot);
+    }
+
+    @Override
+    public <T> T field(@NonNull Enum key) {
+        return field(key.name());
+    }
+
+    @Override
+    public int intField(@NonNull String key) {
+        int slot = schema.slot(key);
+        if (slot < 0) {
+            throw new IllegalArgumentException(String.format("Missing field \"%s\"", key));
+        }
+        return getInt(slot);
+    }
+
+    @Override
+    public boolean hasFields(@NonNull EnumSet<?> keys) {
+        return keys.stream().allMatch(key -> hasFields(key.name()));
+    }
+
+    @Override
+    public boolean hasFields(@NonNull String... keys) {
+        for (String key : keys) {
+            int slot = schema.slot(key);
+            if (slot < 0 || kinds[slot] == UNSET) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import lombok.NonNull;
+
+/**
+ * Compact, immutable dictionary from strings to contiguous integer IDs, where the ID of each string is its position in the
+ * list the index was built from. All strings are stored back to back in a single char buffer, and looked up through an open
+ * addressing table of int offsets, so lookups allocate nothing and IDs are never boxed.
+ * <p>
+ * The whole index lives in one {@link ByteBuffer} with a fixed layout, which can be {@link #write(Path) written} to a file
+ * and {@link #map(Path) memory-mapped} back without parsing. Indices loaded through {@link #shared(String, String, Function)}
+ * are shared by all callers loading the same version of a file in the same format for as long as any of them holds a
+ * reference. Immutable and thread-safe, as buffers are only read with absolute gets.
+ *
+ * @author jgung
+ */
+public final class StringIndex {
+
+    /**
+     * Extension of prebuilt index files.
+     */
+    public static final String EXTENSION = ".idx";
+
+    private static final int MAGIC = 0x53494458;
+    private static final int VERSION = 1;
+    // magic, version, size, table size, char count
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final int EMPTY = -1;
+
+    private static final Cache<String, StringIndex> SHARED = CacheBuilder.newBuilder().weakValues().build();
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int mask;
+    // start offset of each string in chars, followed by the total number of chars
+    private final IntBuffer offsets;
+    // open addressing table of string IDs
+    private final IntBuffer slots;
+    private final CharBuffer chars;
+
+    private StringIndex(ByteBuffer buffer) {
+        Preconditions.checkArgument(buffer.capacity() >= HEADER_BYTES && buffer.getInt(0) == MAGIC,
+                "Buffer does not contain a string index");
+        Preconditions.checkArgument(buffer.getInt(Integer.BYTES) == VERSION,
+                "Unsupported string index version: %s", buffer.getInt(Integer.BYTES));
+        this.buffer = buffer;
+        this.size = buffer.getInt(2 * Integer.BYTES);
+        int tableSize = buffer.getInt(3 * Integer.BYTES);
+        int charCount = buffer.getInt(4 * Integer.BYTES);
+        this.mask = tableSize - 1;
+
+        int slotsStart = HEADER_BYTES + (size + 1) * Integer.BYTES;
+        int charsStart = slotsStart + tableSize * Integer.BYTES;
+        this.offsets = view(buffer, HEADER_BYTES, slotsStart).asIntBuffer();
+        this.slots = view(buffer, slotsStart, charsStart).asIntBuffer();
+        this.chars = view(buffer, charsStart, charsStart + charCount * Character.BYTES).asCharBuffer();
+    }
+
+    private static ByteBuffer view(ByteBuffer buffer, int start, int end) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(end);
+        duplicate.position(start);
+        return duplicate.slice();
+    }
+
+    /**
+     * Build an index from a list of distinct strings, with IDs given by their positions in the list.
+     *
+     * @param entries distinct strings
+     * @return string index
+     * @throws IllegalStateException if a string occurs more than once
+     */
+    public static StringIndex of(@NonNull List<String> entries) {
+        int size = entries.size();
+        int tableSize = Integer.highestOneBit(Math.max(2, 2 * size) - 1) << 1;
+        long charCount = entries.stream().mapToLong(String::length).sum();
+        long bytes = HEADER_BYTES + (long) (size + 1 + tableSize) * Integer.BYTES + charCount * Character.BYTES;
+        Preconditions.checkArgument(bytes <= Integer.MAX_VALUE, "Too many strings for a single index: %s", size);
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) bytes);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(tableSize).putInt((int) charCount);
+        int slotsStart = HEADER_BYTES + (size + 1) * Integer.BYTES;
+        int charsStart = slotsStart + tableSize * Integer.BYTES;
+        for (int slot = 0; slot < tableSize; ++slot) {
+            buffer.putInt(slotsStart + slot * Integer.BYTES, EMPTY);
+        }
+
+        int offset = 0;
+        for (int id = 0; id < size; ++id) {
+            String entry = entries.get(id);
+            buffer.putInt(HEADER_BYTES + id * Integer.BYTES, offset);
+            for (int i = 0; i < entry.length(); ++i) {
+                buffer.putChar(charsStart + (offset + i) * Character.BYTES, entry.charAt(i));
+            }
+            offset += entry.length();
+
+            int slot = hash(entry) & (tableSize - 1);
+            int existing;
+            while ((existing = buffer.getInt(slotsStart + slot * Integer.BYTES)) != EMPTY) {
+                if (entries.get(existing).equals(entry)) {
+                    throw new IllegalStateException("Duplicate key found in vocabulary: " + entry);
+                }
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            buffer.putInt(slotsStart + slot * Integer.BYTES, id);
+        }
+        buffer.putInt(HEADER_BYTES + size * Integer.BYTES, offset);
+        return new StringIndex(buffer);
+    }
+
+    /**
+     * Build an index from a map of strings to IDs, which must be contiguous and start at 0.
+     *
+     * @param indices map from strings to IDs
+     * @return string index
+     */
+    public static StringIndex of(@NonNull Map<String, Integer> indices) {
+        String[] entries = new String[indices.size()];
+        indices.forEach((entry, id) -> {
+            Preconditions.checkArgument(id >= 0 && id < entries.length && null == entries[id],
+                    "IDs must be distinct and contiguous from 0, found %s for %s", id, entry);
+            entries[id] = entry;
+        });
+        return of(Arrays.asList(entries));
+    }
+
+    /**
+     * Memory-map an index previously {@link #write(Path) written} to a file.
+     *
+     * @param path index file
+     * @return string index backed by the mapped file
+     */
+    public static StringIndex map(@NonNull Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new StringIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to map string index at " + path, e);
+        }
+    }
+
+    /**
+     * Return the index for a given path shared by all callers, loading it with a given loader if no caller currently holds it.
+     * Files are identified by their canonical path, size and modification time, so a file changed in place is loaded again
+     * instead of reusing an index of its previous contents. Other paths, such as classpath resources, are identified as given.
+     *
+     * @param format name of the format read by the loader, as loaders of different formats never share indices
+     * @param path   index path
+     * @param loader loads an index from the path
+     * @return shared string index
+     */
+    public static StringIndex shared(@NonNull String format, @NonNull String path,
+                                     @NonNull Function<String, StringIndex> loader) {
+        try {
+            return SHARED.get(format + '\0' + version(path), () -> loader.apply(path));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static String version(String path) {
+        try {
+            Path file = Paths.get(path);
+            if (!Files.isRegularFile(file)) {
+                return path;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return file.toRealPath() + "\0" + attributes.size() + '\0' + attributes.lastModifiedTime().toMillis() + '\0'
+                    + attributes.fileKey();
+        } catch (IOException | RuntimeException e) {
+            // invalid or unreadable paths are left to the loader to report
+            return path;
+        }
+    }
+
+    /**
+     * Write this index to a file that can later be {@link #map(Path) memory-mapped}.
+     *
+     * @param path output path
+     */
+    public void write(@NonNull Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer contents = buffer.duplicate();
+            contents.clear();
+            while (contents.hasRemaining()) {
+                channel.write(contents);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write string index to " + path, e);
+        }
+    }
+
+    /**
+     * Number of strings in this index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the ID of a given string, or -1 if not present.
+     *
+     * @param key string or other char sequence, e.g. a reused {@link StringBuilder}
+     * @return string ID, or -1
+     */
+    public int get(@NonNull CharSequence key) {
+        int slot = hash(key) & mask;
+        int id;
+        while ((id = slots.get(slot)) != EMPTY) {
+            if (matches(id, key)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if a given string is in this index.
+     */
+    public boolean contains(@NonNull CharSequence key) {
+        return get(key) >= 0;
+    }
+
+    /**
+     * Return the string with a given ID.
+     *
+     * @param id string ID
+     * @return string
+     */
+    public String get(int id) {
+        Preconditions.checkElementIndex(id, size);
+        int start = offsets.get(id);
+        char[] value = new char[offsets.get(id + 1) - start];
+        for (int i = 0; i < value.length; ++i) {
+            value[i] = chars.get(start + i);
+        }
+        return new String(value);
+    }
+
+    private boolean matches(int id, CharSequence key) {
+        int start = offsets.get(id);
+        if (offsets.get(id + 1) - start != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); ++i) {
+            if (chars.get(start + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence key) {
+        int hash = 0;
+        for (int i = 0; i < key.length(); ++i) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+}
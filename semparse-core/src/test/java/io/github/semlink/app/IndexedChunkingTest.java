@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link IndexedChunking} tests against {@link DefaultChunking} over the same spans.
+ *
+ * @author jgung
+ */
+public class IndexedChunkingTest {
+
+    private static final List<String> TYPES = Arrays.asList("A0", "A1", "V", "AM-TMP");
+    private static final List<String> TAGS = Arrays.asList("B-", "I-", "E-", "S-");
+
+    private static List<String> labels(Random random, int length) {
+        List<String> labels = new ArrayList<>(length);
+        for (int i = 0; i < length; ++i) {
+            labels.add(random.nextInt(4) == 0 ? "O"
+                    : TAGS.get(random.nextInt(TAGS.size())) + TYPES.get(random.nextInt(TYPES.size())));
+        }
+        return labels;
+    }
+
+    private static <T> void assertSameChunking(Chunking<T> expected, Chunking<T> actual, int length, List<T> labels) {
+        assertEquals(expected.spans(), actual.spans());
+        for (int i = -1; i <= length; ++i) {
+            assertEquals("Span at " + i, expected.span(i), actual.span(i));
+        }
+        for (T label : labels) {
+            assertEquals("Spans of " + label, expected.spans(label), actual.spans(label));
+        }
+    }
+
+    @Test
+    public void testLabelCodecChunking() {
+        Random random = new Random(0);
+        LabelCodec codec = new LabelCodec(LabelCodec.IGNORE_LABEL);
+        List<String> types = new ArrayList<>(TYPES);
+        types.add("A2");
+        for (int trial = 0; trial < 2000; ++trial) {
+            List<String> labels = labels(random, random.nextInt(12));
+            int[] ids = labels.stream().mapToInt(codec::id).toArray();
+
+            DefaultChunking<String> expected = new DefaultChunking<>(ShallowParserUtils.tags2Spans(labels));
+            Chunking<String> actual = codec.chunking(ids);
+            assertSameChunking(expected, actual, labels.size(), types);
+            assertSameChunking(expected, IndexedChunking.of(expected.spans()), labels.size(), types);
+        }
+    }
+
+    @Test
+    public void testMap() {
+        Random random = new Random(1);
+        LabelCodec codec = new LabelCodec(LabelCodec.IGNORE_LABEL);
+        List<String> types = TYPES.stream().map(String::toLowerCase).collect(Collectors.toList());
+        for (int trial = 0; trial < 500; ++trial) {
+            List<String> labels = labels(random, random.nextInt(12));
+            List<Span<String>> spans = ShallowParserUtils.tags2Spans(labels);
+            DefaultChunking<String> expected = new DefaultChunking<>(spans.stream()
+                    .map(span -> Span.convert(span, span.label().toLowerCase()))
+                    .collect(Collectors.toList()));
+
+            Chunking<String> indexed = codec.chunking(labels.stream().mapToInt(codec::id).toArray());
+            assertSameChunking(expected, IndexedChunking.map(indexed, String::toLowerCase), labels.size(), types);
+            assertSameChunking(expected, IndexedChunking.map(new DefaultChunking<>(spans), String::toLowerCase),
+                    labels.size(), types);
+        }
+    }
+
+    @Test
+    public void testLeadingSingleAndEmptyLabels() {
+        assertEquals(Collections.singletonList(new Span<>("A0", 0, 0)),
+                ShallowParserUtils.tags2Spans(Arrays.asList("S-A0", "O")));
+        assertEquals(Arrays.asList(new Span<>("A0", 0, 0), new Span<>("V", 1, 1)),
+                ShallowParserUtils.tags2Spans(Arrays.asList("S-A0", "S-V")));
+        assertEquals(Collections.emptyList(), ShallowParserUtils.tags2Spans(Collections.emptyList()));
+
+        LabelCodec codec = new LabelCodec(LabelCodec.IGNORE_LABEL);
+        Chunking<String> empty = codec.chunking(new int[0]);
+        assertEquals(Collections.emptyList(), empty.spans());
+        assertNull(empty.span(0));
+        assertEquals(Collections.emptyList(), empty.spans("A0"));
+    }
+
+    @Test
+    public void testLabelIndex() {
+        List<Span<String>> spans = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            spans.add(new Span<>(TYPES.get(i % TYPES.size()), i, i));
+        }
+        assertIndexed(spans, labels -> IndexedChunking.map(new DefaultChunking<>(spans), labels));
+        assertIndexed(spans, labels -> IndexedChunking.of(spans.stream()
+                .map(span -> Span.convert(span, labels.apply(span.label())))
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Assert that spans of each label are found through the label index of a chunking with a distinct label instance per span,
+     * comparing only a few labels per lookup instead of scanning every span.
+     */
+    private static void assertIndexed(List<Span<String>> spans,
+                                      Function<Function<String, CountingLabel>, Chunking<CountingLabel>> factory) {
+        AtomicInteger comparisons = new AtomicInteger();
+        Chunking<CountingLabel> chunking = factory.apply(type -> new CountingLabel(type, comparisons));
+        // first lookup builds the index
+        chunking.spans(new CountingLabel(TYPES.get(0), comparisons));
+
+        comparisons.set(0);
+        for (String type : TYPES) {
+            List<Span<CountingLabel>> found = chunking.spans(new CountingLabel(type, comparisons));
+            assertEquals(spans.size() / TYPES.size(), found.size());
+            for (Span<CountingLabel> span : found) {
+                assertEquals(type, span.label().type);
+                assertEquals(type, spans.get(span.startIndex()).label());
+            }
+        }
+        assertTrue("Label comparisons: " + comparisons.get(), comparisons.get() <= 2 * TYPES.size());
+    }
+
+    /**
+     * Label counting calls to {@link #equals(Object)}.
+     */
+    @AllArgsConstructor
+    private static final class CountingLabel {
+
+        private final String type;
+        private final AtomicInteger comparisons;
+
+        @Override
+        public boolean equals(Object other) {
+            comparisons.incrementAndGet();
+            return other instanceof CountingLabel && type.equals(((CountingLabel) other).type);
+        }
+
+        @Override
+        public int hashCode() {
+            return type.hashCode();
+        }
+
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.app;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.github.semlink.type.Fields;
+import io.github.semlink.type.HasFields;
+import lombok.NonNull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link SlidingWindowModel} tests over a {@link StubModel}.
+ *
+ * @author jgung
+ */
+public class SlidingWindowModelTest {
+
+    private static List<String> words(int length) {
+        return IntStream.range(0, length)
+                .mapToObj(i -> i % 5 == 0 ? "unbelievably" : "w" + i)
+                .collect(Collectors.toList());
+    }
+
+    private static HasFields input(List<String> words, int predicate) {
+        return new Fields()
+                .add("word", words)
+                .add("predicate_index", predicate)
+                .add("tag", words.stream().map(String::toUpperCase).collect(Collectors.toList()))
+                .add("id", "doc-1");
+    }
+
+    @Test
+    public void testShortInputsAreUnchanged() {
+        RecordingModel model = new RecordingModel();
+        SlidingWindowModel windowed = new SlidingWindowModel(model, 10, 4);
+        HasFields input = input(words(10), 3);
+        assertEquals(new StubModel().predict(input), windowed.predict(input));
+        assertEquals(0, windowed.windowedInputs());
+        assertTrue(model.inputs.get(0) == input);
+    }
+
+    @Test
+    public void testWordWindowsMatchFullInput() {
+        for (int predicate : new int[]{0, 7, 19, 29}) {
+            RecordingModel model = new RecordingModel();
+            SlidingWindowModel windowed = new SlidingWindowModel(model, 10, 3);
+            HasFields input = input(words(30), predicate);
+            List<String> expected = new StubModel().predict(input);
+            List<String> labels = windowed.predict(input);
+            assertEquals(expected.size(), labels.size());
+            for (int k = 0; k < labels.size(); ++k) {
+                // words within a window of the predicate keep their role, though windows may start a new chunk
+                String role = Math.abs(k - predicate) < 10 ? expected.get(k).substring(2) : "O";
+                assertEquals(role, labels.get(k).equals("O") ? "O" : labels.get(k).substring(2));
+            }
+            for (HasFields window : model.inputs) {
+                List<String> words = window.field("word");
+                assertTrue(words.size() <= 10);
+                assertEquals(words.stream().map(String::toUpperCase).collect(Collectors.toList()), window.field("tag"));
+                assertEquals("doc-1", window.field("id"));
+            }
+        }
+    }
+
+    @Test
+    public void testPieceWindowsFitMaximumPieces() {
+        PieceTokenizer tokenizer = new PieceTokenizer();
+        int maxPieces = 16;
+        for (int predicate = 0; predicate < 40; ++predicate) {
+            RecordingModel model = new RecordingModel();
+            SlidingWindowModel windowed = new SlidingWindowModel(model, tokenizer, maxPieces, 2);
+            List<String> words = words(40);
+            HasFields input = input(words, predicate);
+            List<String> labels = windowed.predict(input);
+            assertEquals(words.size(), labels.size());
+            assertEquals("B-V", labels.get(predicate));
+            assertEquals(1, windowed.windowedInputs());
+
+            for (HasFields window : model.inputs) {
+                List<String> windowWords = window.field("word");
+                int windowPredicate = window.intField("predicate_index");
+                assertEquals(windowPredicate, (int) window.<Integer>field("predicate_index"));
+                assertEquals(words.get(predicate), windowWords.get(windowPredicate));
+                int pieces = 3 + tokenizer.tokenize(windowWords.get(windowPredicate)).size();
+                for (String word : windowWords) {
+                    pieces += tokenizer.tokenize(word).size();
+                }
+                assertTrue("Window of " + pieces + " pieces", pieces <= maxPieces);
+                assertEquals(windowWords.stream().map(String::toUpperCase).collect(Collectors.toList()),
+                        window.field("tag"));
+                assertEquals("doc-1", window.field("id"));
+            }
+        }
+    }
+
+    @Test
+    public void testOversizedPredicateGetsOwnWindow() {
+        RecordingModel model = new RecordingModel();
+        // "unbelievably" is 4 pieces, and repeated: 3 + 4 + 4 > 10
+        SlidingWindowModel windowed = new SlidingWindowModel(model, new PieceTokenizer(), 10, 1);
+        List<String> labels = windowed.predict(input(words(12), 5));
+        assertEquals(1, model.inputs.size());
+        assertEquals(Collections.singletonList("unbelievably"), model.inputs.get(0).field("word"));
+        assertEquals("B-V", labels.get(5));
+        assertEquals(Collections.nCopies(5, "O"), labels.subList(0, 5));
+    }
+
+    /**
+     * Splits words into pieces of at most 3 characters.
+     */
+    private static class PieceTokenizer implements SubwordTokenizer {
+
+        @Override
+        public List<Integer> convertTokensToIds(@NonNull List<String> tokens) {
+            return tokens.stream().map(String::length).collect(Collectors.toList());
+        }
+
+        @Override
+        public List<String> tokenize(@NonNull String text) {
+            List<String> pieces = new ArrayList<>();
+            for (int i = 0; i < text.length(); i += 3) {
+                pieces.add(text.substring(i, Math.min(text.length(), i + 3)));
+            }
+            return pieces;
+        }
+
+    }
+
+    /**
+     * Stub model recording its inputs.
+     */
+    private static class RecordingModel extends StubModel {
+
+        private final List<HasFields> inputs = new ArrayList<>();
+
+        @Override
+        public List<int[]> predictLabelIds(@NonNull List<HasFields> inputs) {
+            this.inputs.addAll(inputs);
+            return super.predictLabelIds(inputs);
+        }
+
+    }
+
+}
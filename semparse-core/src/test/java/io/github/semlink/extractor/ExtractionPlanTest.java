@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.extractor;
+
+import org.junit.Test;
+import org.tensorflow.example.Feature;
+import org.tensorflow.example.FeatureList;
+import org.tensorflow.example.Int64List;
+import org.tensorflow.example.SequenceExample;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.semlink.extractor.config.FeatureSpec;
+import io.github.semlink.tensor.SequenceExampleWriter;
+import io.github.semlink.type.Fields;
+import io.github.semlink.type.HasFields;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * {@link ExtractionPlan} tests.
+ *
+ * @author jgung
+ */
+public class ExtractionPlanTest {
+
+    private static Extractor<FeatureList> positions() {
+        return new Extractor<FeatureList>() {
+            @Override
+            public String name() {
+                return "position";
+            }
+
+            @Override
+            public FeatureList extract(HasFields sequence) {
+                FeatureList.Builder list = FeatureList.newBuilder();
+                for (int i = 0; i < sequence.<List<String>>field("word").size(); ++i) {
+                    list.addFeature(Feature.newBuilder().setInt64List(Int64List.newBuilder().addValue(i - 1)));
+                }
+                return list.build();
+            }
+        };
+    }
+
+    private static ExtractionPlan plan(String... names) {
+        KeyFeatureListExtractor words = new KeyFeatureListExtractor(new FeatureSpec().name(names[0]).key("word"), null);
+        words.mappingFunctions(Collections.singletonList(String::toLowerCase));
+        KeyFeatureListExtractor tags = new KeyFeatureListExtractor(new FeatureSpec().name(names[1]).key("tag"), null);
+        CharacterFeatureExtractor chars = new CharacterFeatureExtractor(new FeatureSpec().name(names[2]).key("word")
+                .maxLen(6).leftPadding(1).rightPadding(1), null);
+        return new ExtractionPlan(Arrays.asList(words, positions(), tags, chars),
+                Arrays.asList(new LengthExtractor("word"), new ConstantFeatureExtractor("sentence_idx", -3)),
+                Collections.emptyMap());
+    }
+
+    private static void assertWritten(ExtractionPlan plan, HasFields sequence) {
+        SequenceExample expected = plan.extractSequence(sequence);
+        SequenceExampleWriter writer = new SequenceExampleWriter(4);
+        plan.writeSequence(sequence, writer);
+        plan.writeSequence(sequence, writer);
+        byte[][] written = writer.examples();
+        assertArrayEquals(expected.toByteArray(), written[0]);
+        assertArrayEquals(expected.toByteArray(), written[1]);
+    }
+
+    @Test
+    public void testWriteSequenceMatchesExtractSequence() {
+        ExtractionPlan plan = plan("words", "tags", "chars");
+        assertWritten(plan, new Fields()
+                .add("word", Arrays.asList("The", "café", "sold", "😀", "extraordinarily", "cheap", "food", "€\uDC00"))
+                .add("tag", Arrays.asList("DT", "NN", "VBD", "SYM", "RB", "JJ", "NN", "SYM")));
+        assertWritten(plan, new Fields()
+                .add("word", Collections.emptyList())
+                .add("tag", Collections.emptyList()));
+    }
+
+    @Test
+    public void testWriteSequenceWithRepeatedNames() {
+        // later feature lists replace earlier ones with the same name
+        assertWritten(plan("words", "words", "chars"), new Fields()
+                .add("word", Arrays.asList("A", "b"))
+                .add("tag", Arrays.asList("X", "Y")));
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.parser;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import io.github.semlink.util.StringUtils;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Differential tests of {@link DefaultSentenceNormalizer} against the chain of regex replacements it implements.
+ *
+ * @author jgung
+ */
+public class DefaultSentenceNormalizerTest {
+
+    private static final List<String> TOKENS = Arrays.asList(
+            "is", "Are", "WAS", "were", "have", "has", "had", "does", "did", "do", "ca", "CA", "could", "might", "must",
+            "should", "would", "need", "this", "thing", "I", "you", "we", "x", "1", "_",
+            "n't", "nt", "N'T", "n", "'t", "t", "not", "now", "isn't", "don't", "can't", "Wasnt", "I've", "we'd", "they're",
+            "you'll", "I'm",
+            "'ve", "'re", "'ll", "'d", "'m", "'VE", "'Re", "'D", "'M", "'", "ve", "re", "ll", "d", "m", "'dve",
+            "cannot", "CanNot", "wanna", "lemme", "gotta", "Gonna", "dunno", "gimme", "wo", "wonot", "canot",
+            "-", ",", ".", "?", "’", " ", "—", "\u0301", "\u0301", "_\u0301", "\u0301\u0308", "é", "gonna\u0301",
+            "isnt\u0301", "you've\u0301");
+    private static final List<String> SEPARATORS = Arrays.asList("", "", "", " ", " ", " ", " ", "  ", "\t", "\n", "-", "-",
+            ",", "'");
+    private static final String CHARACTERS = "abcdeilmnorstvwADNTV'' '' _-.,?!1\t\u0301\u0301\u0308é";
+
+    private final DefaultSentenceNormalizer normalizer = new DefaultSentenceNormalizer();
+
+    private static String contractionHeavy(Random random) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = random.nextInt(12); i >= 0; --i) {
+            sentence.append(TOKENS.get(random.nextInt(TOKENS.size())))
+                    .append(SEPARATORS.get(random.nextInt(SEPARATORS.size())));
+        }
+        return sentence.toString();
+    }
+
+    private static String randomCharacters(Random random) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = random.nextInt(40); i >= 0; --i) {
+            sentence.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+        return sentence.toString();
+    }
+
+    private void assertNormalized(String sentence) {
+        if (sentence.trim().isEmpty()) {
+            return;
+        }
+        assertEquals("Normalizing \"" + sentence + "\"", Reference.normalize(sentence), normalizer.normalize(sentence));
+    }
+
+    @Test
+    public void testExamples() {
+        assertEquals("I ca not believe they are here.", normalizer.normalize("I can't believe they're here"));
+        assertEquals("Why do not you have a car?", normalizer.normalize("why don't you have a car"));
+        assertEquals("They want to go, but I do not know.", normalizer.normalize("They wanna go, but I dunno."));
+        assertEquals("You can not say I would have.", normalizer.normalize("You cannot say I'd've"));
+        // only the last contraction of a whitespace-delimited run is expanded by each rule
+        assertEquals("You've-we have.", normalizer.normalize("you've-we've"));
+        assertEquals("X have-is not have.", normalizer.normalize("x've-isn't've"));
+        assertEquals("A have 've.", normalizer.normalize("a 've 've"));
+        assertEquals("Wonot canot.", normalizer.normalize("wonot canot"));
+        // a non-spacing mark following a letter is a word character for word boundaries
+        assertEquals("They gonna\u0301 go.", normalizer.normalize("they gonna\u0301 go"));
+        assertEquals("Isnt\u0301 here.", normalizer.normalize("isnt\u0301 here"));
+        assertEquals("You've\u0301 done.", normalizer.normalize("you've\u0301 done"));
+        assertEquals("I'd\u0301 go.", normalizer.normalize("I'd\u0301 go"));
+        assertEquals("going to \u0301 go.", normalizer.normalize("gonna \u0301 go"));
+    }
+
+    @Test
+    public void testContractionHeavySentences() {
+        Random random = new Random(0);
+        for (int i = 0; i < 50000; ++i) {
+            assertNormalized(contractionHeavy(random));
+        }
+    }
+
+    @Test
+    public void testRandomSentences() {
+        Random random = new Random(1);
+        for (int i = 0; i < 50000; ++i) {
+            assertNormalized(randomCharacters(random));
+        }
+    }
+
+    /**
+     * Previous implementation, applying each rule as a regex replacement to the result of the previous one.
+     */
+    private static final class Reference {
+
+        private static final Pattern PUNCTUATION = Pattern.compile("\\p{Punct}$");
+        private static final Pattern QUESTION = Pattern.compile(
+                "^(can|could|do|does|how|may|might|must|should|to whom|was|what|when|where|which|who|why|will|would)\\b",
+                Pattern.CASE_INSENSITIVE);
+
+        private static final Map<Pattern, String> CONTRACTIONS = new LinkedHashMap<>();
+
+        static {
+            put("(is|are|was|were|have|has|had|does|did|do|ca|could|might|must|should|would|need) ?n'?t\\b", "$1 not");
+            put("(\\S+) ?'ve\\b", "$1 have");
+            put("(\\S+) ?'re\\b", "$1 are");
+            put("(\\S+) ?'ll\\b", "$1 will");
+            put("(\\S+) ?'d\\b", "$1 would");
+            put("(\\S+) ?'m\\b", "$1 am");
+            put("\\bcannot\\b", "can not");
+            put("\\bwanna\\b", "want to");
+            put("\\blemme\\b", "let me");
+            put("\\bgotta\\b", "got to");
+            put("\\bgonna\\b", "going to");
+            put("\\bdunno\\b", "do not know");
+            put("\\bgimme\\b", "give me");
+            put("\\bwo\\b(?=not)", "will");
+            put("\\bca\\b(?=not)", "can");
+        }
+
+        private static void put(String regex, String replacement) {
+            CONTRACTIONS.put(Pattern.compile(regex, Pattern.CASE_INSENSITIVE), replacement);
+        }
+
+        private static String normalize(String sentence) {
+            String result = StringUtils.capitalize(sentence.trim());
+            if (!PUNCTUATION.matcher(result).find()) {
+                result = result + (QUESTION.matcher(result).find() ? "?" : ".");
+            }
+            for (Map.Entry<Pattern, String> entry : CONTRACTIONS.entrySet()) {
+                result = entry.getKey().matcher(result).replaceAll(entry.getValue());
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tensor;
+
+import com.google.protobuf.ByteString;
+
+import org.junit.Test;
+import org.tensorflow.example.BytesList;
+import org.tensorflow.example.Feature;
+import org.tensorflow.example.FeatureList;
+import org.tensorflow.example.FeatureLists;
+import org.tensorflow.example.Features;
+import org.tensorflow.example.FloatList;
+import org.tensorflow.example.Int64List;
+import org.tensorflow.example.SequenceExample;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Byte equality of {@link SequenceExampleWriter} output with {@link SequenceExample#toByteArray()}.
+ *
+ * @author jgung
+ */
+public class SequenceExampleWriterTest {
+
+    private static Feature int64(long... values) {
+        Int64List.Builder list = Int64List.newBuilder();
+        for (long value : values) {
+            list.addValue(value);
+        }
+        return Feature.newBuilder().setInt64List(list).build();
+    }
+
+    private static Feature floats(float... values) {
+        FloatList.Builder list = FloatList.newBuilder();
+        for (float value : values) {
+            list.addValue(value);
+        }
+        return Feature.newBuilder().setFloatList(list).build();
+    }
+
+    private static Feature bytes(String... values) {
+        BytesList.Builder list = BytesList.newBuilder();
+        for (String value : values) {
+            list.addValue(ByteString.copyFromUtf8(value));
+        }
+        return Feature.newBuilder().setBytesList(list).build();
+    }
+
+    private static FeatureList featureList(Feature... features) {
+        FeatureList.Builder list = FeatureList.newBuilder();
+        for (Feature feature : features) {
+            list.addFeature(feature);
+        }
+        return list.build();
+    }
+
+    private static void assertWritten(SequenceExample... examples) {
+        SequenceExampleWriter writer = new SequenceExampleWriter(1);
+        for (SequenceExample example : examples) {
+            writer.write(example);
+        }
+        byte[][] written = writer.examples();
+        assertEquals(examples.length, written.length);
+        for (int i = 0; i < examples.length; ++i) {
+            assertArrayEquals(examples[i].toByteArray(), written[i]);
+        }
+    }
+
+    @Test
+    public void testEmptyExamples() {
+        assertWritten(SequenceExample.getDefaultInstance(),
+                SequenceExample.newBuilder().setContext(Features.getDefaultInstance()).build(),
+                SequenceExample.newBuilder().setFeatureLists(FeatureLists.getDefaultInstance()).build());
+    }
+
+    @Test
+    public void testEmptyLists() {
+        assertWritten(SequenceExample.newBuilder()
+                .setContext(Features.newBuilder()
+                        .putFeature("none", Feature.getDefaultInstance())
+                        .putFeature("int64", int64())
+                        .putFeature("float", floats())
+                        .putFeature("bytes", bytes()))
+                .setFeatureLists(FeatureLists.newBuilder()
+                        .putFeatureList("empty", FeatureList.getDefaultInstance())
+                        .putFeatureList("emptyFeatures", featureList(int64(), floats(), bytes(""))))
+                .build());
+    }
+
+    @Test
+    public void testValues() {
+        assertWritten(SequenceExample.newBuilder()
+                .setContext(Features.newBuilder()
+                        .putFeature("length", int64(5))
+                        .putFeature("negative", int64(-1, Long.MIN_VALUE, Long.MAX_VALUE, 0, 127, 128))
+                        .putFeature("float", floats(0.5f, -1e-30f, Float.NaN, Float.NEGATIVE_INFINITY))
+                        .putFeature("bytes", bytes("a", "", "été", "😀")))
+                .setFeatureLists(FeatureLists.newBuilder()
+                        .putFeatureList("words", featureList(bytes("the"), bytes("cat"), bytes("sat")))
+                        .putFeatureList("ids", featureList(int64(1), int64(-2), int64(300)))
+                        .putFeatureList("scores", featureList(floats(1f, 2f), floats(3f))))
+                .build());
+    }
+
+    @Test
+    public void testLongMessages() {
+        Random random = new Random(0);
+        // lengths of 128 bytes or more need wider length prefixes at every level of nesting
+        for (int size : new int[]{20, 127, 128, 200, 3000, 40000}) {
+            long[] values = new long[size];
+            float[] floats = new float[size];
+            Feature[] features = new Feature[size];
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < size; ++i) {
+                values[i] = random.nextLong() >> random.nextInt(64);
+                floats[i] = random.nextFloat();
+                features[i] = int64(values[i]);
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            assertWritten(SequenceExample.newBuilder()
+                    .setContext(Features.newBuilder()
+                            .putFeature("values", int64(values))
+                            .putFeature("floats", floats(floats))
+                            .putFeature("text", bytes(text.toString())))
+                    .setFeatureLists(FeatureLists.newBuilder()
+                            .putFeatureList("features", featureList(features))
+                            .putFeatureList("text", featureList(bytes(text.toString(), "b"))))
+                    .build());
+        }
+    }
+
+    @Test
+    public void testStreamingMatchesBuilders() {
+        SequenceExample expected = SequenceExample.newBuilder()
+                .setContext(Features.newBuilder()
+                        .putFeature("predicate_index", int64(3))
+                        .putFeature("negative", int64(-7))
+                        .putFeature("scores", floats(0.25f)))
+                .setFeatureLists(FeatureLists.newBuilder()
+                        .putFeatureList("ids", featureList(int64(101), int64(-1), int64(1L << 40)))
+                        .putFeatureList("words", featureList(bytes("a"), bytes("b")))
+                        .putFeatureList("chars", featureList(bytes("x", "y"), floats()))
+                        .putFeatureList("codePoints", featureList(bytes("a", "é", "€", "😀", "?", "<s>"), bytes())))
+                .build();
+
+        SequenceExampleWriter writer = new SequenceExampleWriter(8);
+        for (int i = 0; i < 2; ++i) {
+            writer.startExample()
+                    .startContext()
+                    .int64Feature("predicate_index", 3)
+                    .int64Feature("negative", -7)
+                    .contextFeature("scores", floats(0.25f))
+                    .endContext()
+                    .startFeatureLists()
+                    .startFeatureList("ids").int64(101).int64(-1).int64(1L << 40).endFeatureList()
+                    .startFeatureList("words")
+                    .bytes(ByteString.copyFromUtf8("a"))
+                    .bytes(ByteString.copyFromUtf8("b"))
+                    .endFeatureList()
+                    .startFeatureList("chars").feature(bytes("x", "y")).feature(floats()).endFeatureList()
+                    .startFeatureList("codePoints")
+                    .startBytesFeature()
+                    .utf8Value('a').utf8Value('é').utf8Value('€').utf8Value("😀".codePointAt(0)).utf8Value(0xD800)
+                    .bytesValue(ByteString.copyFromUtf8("<s>"))
+                    .endBytesFeature()
+                    .startBytesFeature().endBytesFeature()
+                    .endFeatureList()
+                    .endFeatureLists()
+                    .endExample();
+        }
+        byte[][] written = writer.examples();
+        assertEquals(2, written.length);
+        assertArrayEquals(expected.toByteArray(), written[0]);
+        assertArrayEquals(expected.toByteArray(), written[1]);
+
+        writer.reset();
+        assertEquals(0, writer.examples().length);
+        writer.write(expected);
+        assertArrayEquals(expected.toByteArray(), writer.examples()[0]);
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link StringIndex} sharing tests.
+ *
+ * @author jgung
+ */
+public class StringIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Function<String, StringIndex> loader() {
+        return path -> {
+            loads.incrementAndGet();
+            try {
+                return StringIndex.of(Files.readAllLines(folder.getRoot().toPath().resolve(path), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(folder.getRoot().toPath().resolve(name), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSharedUntilModified() throws IOException {
+        String path = write("vocab.txt", "a", "b").toString();
+        StringIndex first = StringIndex.shared("test", path, loader());
+        assertSame(first, StringIndex.shared("test", path, loader()));
+        assertEquals(1, loads.get());
+
+        write("vocab.txt", "b", "a", "c");
+        StringIndex resized = StringIndex.shared("test", path, loader());
+        assertNotSame(first, resized);
+        assertEquals(0, resized.get("b"));
+        assertEquals(3, resized.size());
+
+        // same size, later modification time
+        Path file = write("vocab.txt", "c", "a", "b");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 60000));
+        StringIndex modified = StringIndex.shared("test", path, loader());
+        assertNotSame(resized, modified);
+        assertEquals(0, modified.get("c"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testFormatsNotShared() throws IOException {
+        String path = write("vocab.txt", "a", "b").toString();
+        StringIndex first = StringIndex.shared("first", path, loader());
+        StringIndex second = StringIndex.shared("second", path, loader());
+        assertNotSame(first, second);
+        assertSame(second, StringIndex.shared("second", path, loader()));
+        assertEquals(2, loads.get());
+    }
+
+}
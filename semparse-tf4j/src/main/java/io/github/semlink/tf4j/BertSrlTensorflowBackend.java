@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import java.util.Map;
+
+import io.github.semlink.app.InferenceBackend;
+import io.github.semlink.app.LabelingModel;
+import io.github.semlink.parser.feat.BertSrlExampleExtractor;
+import lombok.NonNull;
+
+/**
+ * {@link InferenceBackend} loading BERT-based SRL models as Tensorflow saved models (see
+ * {@link #bertFromDirectory(String, SessionConfig)}). Supported options are "intraOpThreads", "interOpThreads" and
+ * "sessionPoolSize" (see {@link SessionConfig}).
+ *
+ * @author jgung
+ */
+public class BertSrlTensorflowBackend implements InferenceBackend {
+
+    public static final String NAME = "tensorflow";
+
+    /**
+     * Load a BERT-based SRL model from a given model directory.
+     *
+     * @param modelDir model directory, containing the saved model in a "model" subdirectory
+     * @return Tensorflow model
+     */
+    public static TensorflowModel bertFromDirectory(@NonNull String modelDir) {
+        return TensorflowModel.fromDirectory(modelDir, BertSrlExampleExtractor.bertExtractor(modelDir));
+    }
+
+    /**
+     * Load a BERT-based SRL model from a given model directory with explicit session configuration.
+     *
+     * @param modelDir model directory, containing the saved model in a "model" subdirectory
+     * @param config   session configuration
+     * @return Tensorflow model
+     */
+    public static TensorflowModel bertFromDirectory(@NonNull String modelDir, @NonNull SessionConfig config) {
+        return TensorflowModel.fromDirectory(modelDir, BertSrlExampleExtractor.bertExtractor(modelDir), config);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public LabelingModel load(@NonNull String modelDir, @NonNull Map<String, String> options) {
+        SessionConfig config = new SessionConfig();
+        if (options.containsKey("intraOpThreads")) {
+            config.intraOpThreads(Integer.parseInt(options.get("intraOpThreads")));
+        }
+        if (options.containsKey("interOpThreads")) {
+            config.interOpThreads(Integer.parseInt(options.get("interOpThreads")));
+        }
+        if (options.containsKey("sessionPoolSize")) {
+            config.sessionPoolSize(Integer.parseInt(options.get("sessionPoolSize")));
+        }
+        return bertFromDirectory(modelDir, config);
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.github.semlink.app.SequencePredictor;
+import io.github.semlink.type.HasFields;
+import lombok.NonNull;
+
+/**
+ * {@link SequencePredictor} that splits large inputs into sub-batches and pipelines them through a {@link TensorflowModel}:
+ * while sub-batch N runs in Tensorflow on the calling thread, sub-batch N+1 is extracted and serialized and sub-batch N-1 is
+ * decoded on a helper executor. Results are returned in input order. Every tensor is closed before
+ * {@link #predictBatch(List)} returns, including when a stage fails.
+ *
+ * @author jgung
+ */
+public class PipelinedPredictor implements SequencePredictor<HasFields>, AutoCloseable {
+
+    private final TensorflowModel model;
+    private final int batchSize;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Initialize a pipelined predictor.
+     *
+     * @param model     underlying model
+     * @param batchSize maximum number of inputs per sub-batch
+     * @param executor  executor used for feature extraction and decoding
+     */
+    public PipelinedPredictor(@NonNull TensorflowModel model, int batchSize, @NonNull ExecutorService executor) {
+        this(model, batchSize, executor, false);
+    }
+
+    /**
+     * Initialize a pipelined predictor with its own pair of helper threads, shut down on {@link #close()}.
+     *
+     * @param model     underlying model
+     * @param batchSize maximum number of inputs per sub-batch
+     */
+    public PipelinedPredictor(@NonNull TensorflowModel model, int batchSize) {
+        this(model, batchSize, Executors.newFixedThreadPool(2, new ThreadFactoryBuilder()
+                .setNameFormat("pipelined-predictor-%d")
+                .setDaemon(true)
+                .build()), true);
+    }
+
+    private PipelinedPredictor(TensorflowModel model, int batchSize, ExecutorService executor, boolean ownsExecutor) {
+        Preconditions.checkArgument(batchSize > 0, "Batch size must be positive: %s", batchSize);
+        this.model = model;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    @Override
+    public List<String> predict(@NonNull HasFields input) {
+        return model.predict(input);
+    }
+
+    @Override
+    public List<List<String>> predictBatch(@NonNull List<HasFields> inputs) {
+        if (inputs.size() <= batchSize) {
+            return model.predictBatch(inputs);
+        }
+        List<List<HasFields>> batches = Lists.partition(inputs, batchSize);
+        List<CompletableFuture<List<List<String>>>> decoded = new ArrayList<>(batches.size());
+        CompletableFuture<TrackedTensor<String>> next = prepare(batches.get(0));
+        try {
+            for (int i = 0; i < batches.size(); ++i) {
+                CompletableFuture<TrackedTensor<String>> current = next;
+                next = null;
+                TensorList results;
+                try (TrackedTensor<String> input = current.join()) {
+                    if (i + 1 < batches.size()) {
+                        next = prepare(batches.get(i + 1));
+                    }
+                    results = model.run(input.tensor());
+                }
+                decoded.add(decode(results));
+            }
+
+            List<List<String>> labels = new ArrayList<>(inputs.size());
+            for (CompletableFuture<List<List<String>>> batch : decoded) {
+                labels.addAll(batch.join());
+            }
+            return labels;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            // on failure, wait for outstanding stages so that no tensor outlives this call
+            if (null != next) {
+                next.handle((tensor, error) -> {
+                    if (null != tensor) {
+                        tensor.close();
+                    }
+                    return null;
+                }).join();
+            }
+            decoded.forEach(batch -> batch.handle((result, error) -> null).join());
+        }
+    }
+
+    private CompletableFuture<TrackedTensor<String>> prepare(List<HasFields> batch) {
+        return CompletableFuture.supplyAsync(() -> model.prepare(batch), executor);
+    }
+
+    private CompletableFuture<List<List<String>>> decode(TensorList results) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try (TensorList fetched = results) {
+                    return model.decode(fetched);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            // the task owning the results never ran, e.g. if the executor was shut down
+            results.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+        model.close();
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import io.github.semlink.app.LabelCodec;
+import io.github.semlink.app.LabelingModel;
+import io.github.semlink.type.HasFields;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link LabelingModel} wrapper around a {@link TensorflowModel} that can be replaced without interrupting callers. A reload
+ * loads the new model (saved model bundle, vocabulary and extractor configuration) in the background, warms it with sample
+ * batches, then atomically switches new requests to it. The previous model is closed once all calls already using it
+ * complete.
+ *
+ * @author jgung
+ */
+@Slf4j
+public class ReloadableTensorflowModel implements LabelingModel {
+
+    private final Function<String, TensorflowModel> loader;
+    private final List<List<HasFields>> warmupBatches;
+    private final LabelCodec labelCodec;
+    private final AtomicReference<Handle> current = new AtomicReference<>();
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("model-reloader-%d")
+            .setDaemon(true)
+            .build());
+
+    /**
+     * Load an initial model.
+     *
+     * @param modelDir      initial model directory
+     * @param loader        loads a model from a directory, e.g. {@code BertSrlTensorflowBackend::bertFromDirectory}
+     * @param labelCodec    codec shared by all loaded models, so that label IDs remain stable across reloads
+     * @param warmupBatches sample batches run through each new model before it receives requests
+     */
+    public ReloadableTensorflowModel(@NonNull String modelDir,
+                                     @NonNull Function<String, TensorflowModel> loader,
+                                     @NonNull LabelCodec labelCodec,
+                                     @NonNull List<List<HasFields>> warmupBatches) {
+        this.loader = loader;
+        this.labelCodec = labelCodec;
+        this.warmupBatches = new ArrayList<>(warmupBatches);
+        this.current.set(new Handle(load(modelDir), modelDir));
+    }
+
+    public ReloadableTensorflowModel(@NonNull String modelDir, @NonNull Function<String, TensorflowModel> loader) {
+        this(modelDir, loader, new LabelCodec(TensorflowModel.IGNORE_LABEL), Collections.emptyList());
+    }
+
+    /**
+     * Load and warm a model from a new directory in the background, then switch to it. Reloads are applied one at a time, in
+     * the order requested. If loading or warmup fails, the current model remains in use. If this model is closed before the
+     * switch, the new model is closed instead and the future completes exceptionally.
+     *
+     * @param modelDir new model directory
+     * @return future completed once new requests use the new model
+     */
+    public CompletableFuture<Void> reload(@NonNull String modelDir) {
+        Preconditions.checkState(null != current.get(), "Model has been closed");
+        return CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            Handle updated = new Handle(load(modelDir), modelDir);
+            Handle previous;
+            do {
+                previous = current.get();
+                if (null == previous) {
+                    // closed while loading, so nothing else holds a reference to the new model
+                    updated.release();
+                    throw new IllegalStateException("Model was closed before switching to model at " + modelDir);
+                }
+            } while (!current.compareAndSet(previous, updated));
+            log.info("Switched from model at {} to model at {} after {} ms", previous.modelDir, modelDir,
+                    System.currentTimeMillis() - start);
+            previous.release();
+        }, reloader);
+    }
+
+    /**
+     * Directory of the model currently receiving new requests.
+     */
+    public String modelDir() {
+        return current.get().modelDir;
+    }
+
+    private TensorflowModel load(String modelDir) {
+        TensorflowModel model = loader.apply(modelDir).labelCodec(labelCodec);
+        try {
+            for (List<HasFields> batch : warmupBatches) {
+                model.predictLabelIds(batch);
+            }
+        } catch (RuntimeException e) {
+            model.close();
+            throw e;
+        }
+        return model;
+    }
+
+    private Handle acquire() {
+        while (true) {
+            Handle handle = current.get();
+            Preconditions.checkState(null != handle, "Model has been closed");
+            if (handle.retain()) {
+                return handle;
+            }
+            // handle was retired and released concurrently, retry with its replacement
+        }
+    }
+
+    @Override
+    public List<String> predict(@NonNull HasFields input) {
+        return predictBatch(Collections.singletonList(input)).get(0);
+    }
+
+    @Override
+    public List<List<String>> predictBatch(@NonNull List<HasFields> inputs) {
+        Handle handle = acquire();
+        try {
+            return handle.model.predictBatch(inputs);
+        } finally {
+            handle.release();
+        }
+    }
+
+    @Override
+    public List<int[]> predictLabelIds(@NonNull List<HasFields> inputs) {
+        Handle handle = acquire();
+        try {
+            return handle.model.predictLabelIds(inputs);
+        } finally {
+            handle.release();
+        }
+    }
+
+    @Override
+    public LabelCodec labelCodec() {
+        return labelCodec;
+    }
+
+    @Override
+    public void close() {
+        reloader.shutdown();
+        Handle handle = current.getAndSet(null);
+        if (null != handle) {
+            handle.release();
+        }
+    }
+
+    /**
+     * Reference-counted model. The initial reference belongs to {@link #current}; the model is closed when the count drops to
+     * zero, i.e. once it has been replaced and all calls using it have completed.
+     */
+    private static final class Handle {
+
+        private final TensorflowModel model;
+        private final String modelDir;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Handle(TensorflowModel model, String modelDir) {
+            this.model = model;
+            this.modelDir = modelDir;
+        }
+
+        private boolean retain() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                model.close();
+            }
+        }
+
+    }
+
+}
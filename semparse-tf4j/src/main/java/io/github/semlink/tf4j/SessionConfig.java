@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import com.google.common.base.Preconditions;
+
+import org.tensorflow.framework.ConfigProto;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Tensorflow session configuration for {@link TensorflowModel}, controlling op-level parallelism of each session and the
+ * number of sessions sharing a single graph.
+ *
+ * @author jgung
+ */
+@Getter
+@Setter
+@Accessors(fluent = true)
+public class SessionConfig {
+
+    /**
+     * Number of threads used to parallelize a single op (e.g. a matrix multiplication). 0 lets Tensorflow choose.
+     */
+    private int intraOpThreads = 0;
+    /**
+     * Number of threads used to run independent ops concurrently. 0 lets Tensorflow choose.
+     */
+    private int interOpThreads = 0;
+    /**
+     * If true, each session gets its own thread pools instead of sharing process-wide pools, so that cores can be
+     * partitioned between concurrently running sessions.
+     */
+    private boolean usePerSessionThreads = false;
+    /**
+     * Number of sessions created over the same graph. Requests are dispatched to the least loaded session.
+     */
+    private int sessionPoolSize = 1;
+    /**
+     * Base configuration for additional settings not exposed above, such as graph optimizer options.
+     */
+    @NonNull
+    private ConfigProto baseConfig = ConfigProto.getDefaultInstance();
+
+    // Lombok skips the getter when a method of the same name exists
+    public int sessionPoolSize() {
+        return sessionPoolSize;
+    }
+
+    public SessionConfig sessionPoolSize(int sessionPoolSize) {
+        Preconditions.checkArgument(sessionPoolSize > 0, "Session pool size must be positive: %s", sessionPoolSize);
+        this.sessionPoolSize = sessionPoolSize;
+        return this;
+    }
+
+    /**
+     * Returns the {@link ConfigProto} for this configuration. Thread counts only override the base configuration when set.
+     */
+    public ConfigProto toConfigProto() {
+        ConfigProto.Builder builder = baseConfig.toBuilder();
+        if (intraOpThreads > 0) {
+            builder.setIntraOpParallelismThreads(intraOpThreads);
+        }
+        if (interOpThreads > 0) {
+            builder.setInterOpParallelismThreads(interOpThreads);
+        }
+        if (usePerSessionThreads) {
+            builder.setUsePerSessionThreads(true);
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import org.tensorflow.SavedModelBundle;
+import org.tensorflow.Session;
+import org.tensorflow.Tensor;
+import org.tensorflow.Tensors;
+import org.tensorflow.framework.AssetFileDef;
+import org.tensorflow.framework.CollectionDef;
+import org.tensorflow.framework.MetaGraphDef;
+import org.tensorflow.util.SaverDef;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import lombok.NonNull;
+
+/**
+ * Pool of Tensorflow {@link Session sessions} over the graph of a single {@link SavedModelBundle}, dispatching each call
+ * to the session with the fewest calls in flight. The first session is the bundle's own session, which is closed along with
+ * the bundle; additional sessions restore variables from the saved model directory and are closed by the pool.
+ *
+ * @author jgung
+ */
+public class SessionPool implements AutoCloseable {
+
+    private static final String VARIABLES_PATH = "variables/variables";
+    private static final String ASSETS_PATH = "assets";
+    private static final String MAIN_OP_KEY = "saved_model_main_op";
+    private static final String LEGACY_INIT_OP_KEY = "legacy_init_op";
+
+    private final List<Session> sessions;
+    private final AtomicInteger[] inFlight;
+    private final List<Session> owned;
+
+    private SessionPool(List<Session> sessions, List<Session> owned) {
+        this.sessions = sessions;
+        this.owned = owned;
+        this.inFlight = new AtomicInteger[sessions.size()];
+        for (int i = 0; i < inFlight.length; ++i) {
+            inFlight[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Pool consisting only of the bundle's session.
+     */
+    public static SessionPool of(@NonNull SavedModelBundle model) {
+        return new SessionPool(Collections.singletonList(model.session()), Collections.emptyList());
+    }
+
+    /**
+     * Create a pool of sessions over the graph of a saved model.
+     *
+     * @param model    saved model bundle, providing the graph and first session
+     * @param modelDir saved model directory the bundle was loaded from, used to restore variables in additional sessions
+     * @param config   session configuration
+     * @return session pool
+     */
+    public static SessionPool of(@NonNull SavedModelBundle model, @NonNull String modelDir, @NonNull SessionConfig config) {
+        if (config.sessionPoolSize() == 1) {
+            return of(model);
+        }
+        MetaGraphDef metaGraph;
+        try {
+            metaGraph = MetaGraphDef.parseFrom(model.metaGraphDef());
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Unable to read saved model meta graph", e);
+        }
+        byte[] configProto = config.toConfigProto().toByteArray();
+
+        List<Session> sessions = new ArrayList<>();
+        List<Session> owned = new ArrayList<>();
+        sessions.add(model.session());
+        try {
+            for (int i = 1; i < config.sessionPoolSize(); ++i) {
+                Session session = new Session(model.graph(), configProto);
+                owned.add(session);
+                restore(session, metaGraph, modelDir);
+                sessions.add(session);
+            }
+        } catch (RuntimeException e) {
+            owned.forEach(Session::close);
+            throw e;
+        }
+        return new SessionPool(sessions, owned);
+    }
+
+    /**
+     * Restore variables and run initialization ops in a new session, mirroring what the saved model loader does for the
+     * bundle's own session.
+     */
+    private static void restore(Session session, MetaGraphDef metaGraph, String modelDir) {
+        SaverDef saver = metaGraph.getSaverDef();
+        if (!saver.getRestoreOpName().isEmpty()) {
+            try (Tensor<String> path = Tensors.create(Paths.get(modelDir, VARIABLES_PATH).toString())) {
+                session.runner()
+                        .feed(saver.getFilenameTensorName(), path)
+                        .addTarget(saver.getRestoreOpName())
+                        .run();
+            }
+        }
+
+        CollectionDef initOps = metaGraph.getCollectionDefMap().get(MAIN_OP_KEY);
+        if (null == initOps) {
+            initOps = metaGraph.getCollectionDefMap().get(LEGACY_INIT_OP_KEY);
+        }
+        if (null == initOps) {
+            return;
+        }
+        List<Tensor<?>> assets = new ArrayList<>();
+        try {
+            Session.Runner runner = session.runner();
+            for (AssetFileDef asset : metaGraph.getAssetFileDefList()) {
+                Tensor<String> assetPath = Tensors.create(Paths.get(modelDir, ASSETS_PATH, asset.getFilename()).toString());
+                assets.add(assetPath);
+                runner.feed(asset.getTensorInfo().getName(), assetPath);
+            }
+            initOps.getNodeList().getValueList().forEach(runner::addTarget);
+            runner.run();
+        } finally {
+            assets.forEach(Tensor::close);
+        }
+    }
+
+    /**
+     * Number of sessions in this pool.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Number of calls currently running on each session.
+     */
+    public List<Integer> load() {
+        List<Integer> load = new ArrayList<>(inFlight.length);
+        for (AtomicInteger count : inFlight) {
+            load.add(count.get());
+        }
+        return load;
+    }
+
+    /**
+     * Apply a function to the least loaded session.
+     *
+     * @param call function using a session, such as a single {@link Session.Runner#run()}
+     * @return function result
+     */
+    public <T> T withSession(@NonNull Function<Session, T> call) {
+        int index = leastLoaded();
+        inFlight[index].incrementAndGet();
+        try {
+            return call.apply(sessions.get(index));
+        } finally {
+            inFlight[index].decrementAndGet();
+        }
+    }
+
+    private int leastLoaded() {
+        int best = 0;
+        int bestLoad = inFlight[0].get();
+        for (int i = 1; i < inFlight.length && bestLoad > 0; ++i) {
+            int load = inFlight[i].get();
+            if (load < bestLoad) {
+                best = i;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void close() {
+        owned.forEach(Session::close);
+    }
+
+}
@@ -14,21 +14,22 @@
  * limitations under the License.
  */
 
-package io.github.semlink.tensor;
+package io.github.semlink.tf4j;
 
 import org.tensorflow.Tensor;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-import lombok.AllArgsConstructor;
 import lombok.experimental.Delegate;
 
 /**
- * {@link AutoCloseable} wrapper for lists of {@link Tensor tensors}.
+ * {@link AutoCloseable} wrapper for lists of {@link Tensor tensors}. Wrapped tensors are accounted for by the
+ * {@link TensorTracker} until the list is closed. The list is read-only, so that every tracked tensor is closed with it.
  *
  * @author jgung
  */
-@AllArgsConstructor
 public class TensorList implements List<Tensor<?>>, AutoCloseable {
 
     public static TensorList of(List<Tensor<?>> tensors) {
@@ -39,11 +40,16 @@ public class TensorList implements List<Tensor<?>>, AutoCloseable {
     }
 
     @Delegate
-    private List<Tensor<?>> tensors;
+    private final List<Tensor<?>> tensors;
+
+    private TensorList(List<Tensor<?>> tensors) {
+        this.tensors = Collections.unmodifiableList(new ArrayList<>(tensors));
+        this.tensors.forEach(TensorTracker::track);
+    }
 
     @Override
     public void close() {
-        tensors.forEach(Tensor::close);
+        tensors.forEach(TensorTracker::close);
     }
 
 }
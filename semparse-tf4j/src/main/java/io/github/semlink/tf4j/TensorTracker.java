@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import org.tensorflow.Tensor;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accounting for native memory held by {@link Tensor tensors}. Tracked tensors are counted (along with their size in bytes)
+ * until closed through {@link #close(Tensor)}, which {@link TrackedTensor} and {@link TensorList} do on all paths. A tensor
+ * that is garbage collected without being closed has leaked its native memory; leaks are counted and logged, including the
+ * allocation stack trace when stack trace capture is enabled (e.g. with {@code -Dsemparse.tensor.debug=true}).
+ *
+ * @author jgung
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TensorTracker {
+
+    private static final String DEBUG_PROPERTY = "semparse.tensor.debug";
+
+    private static final Map<Tensor<?>, Allocation> LIVE = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final ReferenceQueue<Tensor<?>> COLLECTED = new ReferenceQueue<>();
+
+    private static final AtomicLong LIVE_TENSORS = new AtomicLong();
+    private static final AtomicLong LIVE_BYTES = new AtomicLong();
+    private static final AtomicLong ALLOCATED_TENSORS = new AtomicLong();
+    private static final AtomicLong LEAKED_TENSORS = new AtomicLong();
+    private static final AtomicLong LEAKED_BYTES = new AtomicLong();
+
+    private static volatile boolean captureStackTraces = Boolean.getBoolean(DEBUG_PROPERTY);
+
+    /**
+     * Start tracking a tensor. Tracking an already tracked tensor has no effect.
+     *
+     * @param tensor tensor, to be closed through {@link #close(Tensor)}
+     * @return the input tensor
+     */
+    public static <T> Tensor<T> track(@NonNull Tensor<T> tensor) {
+        expungeLeaks();
+        synchronized (LIVE) {
+            if (LIVE.containsKey(tensor)) {
+                return tensor;
+            }
+            LIVE.put(tensor, new Allocation(tensor, captureStackTraces ? new Throwable("Tensor allocated here") : null));
+        }
+        ALLOCATED_TENSORS.incrementAndGet();
+        LIVE_TENSORS.incrementAndGet();
+        LIVE_BYTES.addAndGet(tensor.numBytes());
+        return tensor;
+    }
+
+    /**
+     * Close a tensor, and stop tracking it if tracked.
+     *
+     * @param tensor tensor to close
+     */
+    public static void close(@NonNull Tensor<?> tensor) {
+        Allocation allocation = LIVE.remove(tensor);
+        if (null != allocation) {
+            allocation.clear();
+            LIVE_TENSORS.decrementAndGet();
+            LIVE_BYTES.addAndGet(-allocation.bytes);
+        }
+        tensor.close();
+    }
+
+    /**
+     * Enable or disable capturing allocation stack traces, reported for leaked tensors. Useful for debugging, but expensive.
+     */
+    public static void captureStackTraces(boolean capture) {
+        captureStackTraces = capture;
+    }
+
+    /**
+     * Number of tracked tensors not yet closed.
+     */
+    public static long liveTensors() {
+        expungeLeaks();
+        return LIVE_TENSORS.get();
+    }
+
+    /**
+     * Native bytes held by tracked tensors not yet closed.
+     */
+    public static long liveBytes() {
+        expungeLeaks();
+        return LIVE_BYTES.get();
+    }
+
+    /**
+     * Total number of tensors tracked since startup.
+     */
+    public static long allocatedTensors() {
+        return ALLOCATED_TENSORS.get();
+    }
+
+    /**
+     * Number of tracked tensors garbage collected without being closed.
+     */
+    public static long leakedTensors() {
+        expungeLeaks();
+        return LEAKED_TENSORS.get();
+    }
+
+    /**
+     * Native bytes leaked by tracked tensors garbage collected without being closed.
+     */
+    public static long leakedBytes() {
+        expungeLeaks();
+        return LEAKED_BYTES.get();
+    }
+
+    /**
+     * Allocation stack traces of tracked tensors not yet closed, for tensors allocated while stack trace capture was enabled.
+     */
+    public static List<Throwable> liveAllocationTraces() {
+        List<Throwable> traces = new ArrayList<>();
+        synchronized (LIVE) {
+            for (Allocation allocation : LIVE.values()) {
+                if (null != allocation.trace) {
+                    traces.add(allocation.trace);
+                }
+            }
+        }
+        return traces;
+    }
+
+    private static void expungeLeaks() {
+        Reference<? extends Tensor<?>> reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            Allocation allocation = (Allocation) reference;
+            LIVE_TENSORS.decrementAndGet();
+            LIVE_BYTES.addAndGet(-allocation.bytes);
+            LEAKED_TENSORS.incrementAndGet();
+            LEAKED_BYTES.addAndGet(allocation.bytes);
+            if (null != allocation.trace) {
+                log.warn("Tensor of {} bytes was garbage collected without being closed", allocation.bytes, allocation.trace);
+            } else {
+                log.warn("Tensor of {} bytes was garbage collected without being closed (enable stack traces with -D{}=true)",
+                        allocation.bytes, DEBUG_PROPERTY);
+            }
+        }
+    }
+
+    /**
+     * Weak reference to a tracked tensor, enqueued if the tensor is collected before being closed.
+     */
+    private static final class Allocation extends WeakReference<Tensor<?>> {
+
+        private final long bytes;
+        private final Throwable trace;
+
+        private Allocation(Tensor<?> tensor, Throwable trace) {
+            super(tensor, COLLECTED);
+            this.bytes = tensor.numBytes();
+            this.trace = trace;
+        }
+
+    }
+
+}
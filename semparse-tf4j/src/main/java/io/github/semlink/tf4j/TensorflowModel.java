@@ -0,0 +1,300 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import com.google.common.base.Preconditions;
+
+import org.tensorflow.SavedModelBundle;
+import org.tensorflow.Tensor;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+import io.github.semlink.app.LabelCodec;
+import io.github.semlink.app.LabelingModel;
+import io.github.semlink.extractor.SequenceExampleExtractor;
+import io.github.semlink.extractor.config.ConfigSpec;
+import io.github.semlink.extractor.config.Extractors;
+import io.github.semlink.tensor.SequenceExampleWriter;
+import io.github.semlink.type.HasFields;
+import lombok.NonNull;
+
+/**
+ * Tensorflow sequence prediction model.
+ *
+ * @author jgung
+ */
+public class TensorflowModel implements LabelingModel {
+
+    /**
+     * Label of positions not assigned a label by the model, such as padding and non-initial subtokens.
+     */
+    public static final String IGNORE_LABEL = LabelCodec.IGNORE_LABEL;
+
+    private static final String OP_NAME = "input_example_tensor";
+    private static final String FETCH_NAME = "gold/labels";
+    private static final int DEFAULT_PARALLEL_EXTRACTION_THRESHOLD = 64;
+
+    // serialization buffer reused across batches prepared on the same thread
+    private static final ThreadLocal<SequenceExampleWriter> EXAMPLE_WRITER = ThreadLocal.withInitial(SequenceExampleWriter::new);
+
+    private SequenceExampleExtractor featureExtractor;
+    private SavedModelBundle model;
+    private SessionPool sessions;
+    private LabelCodec labelCodec = new LabelCodec(IGNORE_LABEL);
+    private ForkJoinPool extractionPool = ForkJoinPool.commonPool();
+    private int parallelExtractionThreshold = DEFAULT_PARALLEL_EXTRACTION_THRESHOLD;
+
+    private String inputName;
+    private String fetchName;
+
+    public TensorflowModel(@NonNull SequenceExampleExtractor featureExtractor,
+                           @NonNull SavedModelBundle model,
+                           @NonNull SessionPool sessions,
+                           @NonNull String inputName,
+                           @NonNull String fetchName) {
+        this.featureExtractor = featureExtractor;
+        this.model = model;
+        this.sessions = sessions;
+        this.inputName = inputName;
+        this.fetchName = fetchName;
+    }
+
+    public TensorflowModel(@NonNull SequenceExampleExtractor featureExtractor,
+                           @NonNull SavedModelBundle model,
+                           @NonNull String inputName,
+                           @NonNull String fetchName) {
+        this(featureExtractor, model, SessionPool.of(model), inputName, fetchName);
+    }
+
+    public TensorflowModel(@NonNull SequenceExampleExtractor featureExtractor, @NonNull SavedModelBundle model) {
+        this(featureExtractor, model, OP_NAME, FETCH_NAME);
+    }
+
+    @Override
+    public List<String> predict(@NonNull HasFields input) {
+        return predictBatch(Collections.singletonList(input)).get(0);
+    }
+
+    @Override
+    public List<List<String>> predictBatch(@NonNull List<HasFields> inputs) {
+        try (TrackedTensor<String> inputTensor = prepare(inputs);
+             TensorList results = run(inputTensor.tensor())) {
+            return decode(results);
+        }
+    }
+
+    /**
+     * Extract features from a batch of inputs and serialize them into an input tensor. Does not use the Tensorflow session,
+     * and may run concurrently with {@link #run(Tensor)}. Batches of at least the {@link #parallelExtraction(ForkJoinPool, int)
+     * parallel extraction threshold} are split into chunks extracted in parallel.
+     *
+     * @param inputs input batch
+     * @return serialized input tensor, to be closed by the caller
+     */
+    public TrackedTensor<String> prepare(@NonNull List<HasFields> inputs) {
+        return TrackedTensor.of(Tensor.create(serialize(featureExtractor, inputs, extractionPool, parallelExtractionThreshold),
+                String.class));
+    }
+
+    /**
+     * Serialize the sequence examples extracted from a batch of inputs, in input order. Batches of at least a given threshold
+     * are split into chunks serialized in parallel on a given pool. Safe to call concurrently from multiple threads.
+     *
+     * @param featureExtractor sequence example extractor
+     * @param inputs           input batch
+     * @param pool             pool used for parallel extraction
+     * @param threshold        minimum batch size for parallel extraction
+     * @return serialized examples
+     */
+    static byte[][] serialize(SequenceExampleExtractor featureExtractor, List<HasFields> inputs, ForkJoinPool pool,
+                              int threshold) {
+        if (inputs.size() < threshold) {
+            return serialize(featureExtractor, inputs);
+        }
+        int chunkSize = Math.max(threshold / 2, (inputs.size() + pool.getParallelism() - 1) / pool.getParallelism());
+        List<ForkJoinTask<byte[][]>> chunks = new ArrayList<>();
+        for (int start = 0; start < inputs.size(); start += chunkSize) {
+            List<HasFields> chunk = inputs.subList(start, Math.min(inputs.size(), start + chunkSize));
+            chunks.add(pool.submit(() -> serialize(featureExtractor, chunk)));
+        }
+        byte[][] examples = new byte[inputs.size()][];
+        int index = 0;
+        for (ForkJoinTask<byte[][]> chunk : chunks) {
+            for (byte[] example : chunk.join()) {
+                examples[index++] = example;
+            }
+        }
+        return examples;
+    }
+
+    private static byte[][] serialize(SequenceExampleExtractor featureExtractor, List<HasFields> inputs) {
+        SequenceExampleWriter writer = EXAMPLE_WRITER.get().reset();
+        for (HasFields input : inputs) {
+            featureExtractor.writeSequence(input, writer);
+        }
+        return writer.examples();
+    }
+
+    /**
+     * Run the model on a prepared input tensor.
+     *
+     * @param inputTensor input tensor from {@link #prepare(List)}
+     * @return fetched tensors, to be closed by the caller
+     */
+    public TensorList run(@NonNull Tensor<?> inputTensor) {
+        return TensorList.of(sessions.withSession(session -> session.runner()
+                .feed(inputName, inputTensor)
+                .fetch(fetchName)
+                .run()));
+    }
+
+    /**
+     * Decode labels from tensors fetched by {@link #run(Tensor)}, without closing them.
+     *
+     * @param results fetched tensors
+     * @return batched sequence labels
+     */
+    public List<List<String>> decode(@NonNull TensorList results) {
+        return decodeLabelIds(results).stream()
+                .map(labelCodec::labels)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Decode label IDs (see {@link #labelCodec()}) from tensors fetched by {@link #run(Tensor)}, without closing them.
+     *
+     * @param results fetched tensors
+     * @return batched sequence label IDs
+     */
+    public List<int[]> decodeLabelIds(@NonNull TensorList results) {
+        Tensor<?> labels = results.get(0);
+        long[] shape = labels.shape();
+        byte[][][] bytes;
+        if (shape.length == 2) {
+            bytes = labels.copyTo(new byte[(int) shape[0]][(int) shape[1]][]);
+        } else if (shape.length == 1) {
+            bytes = new byte[1][(int) shape[0]][];
+            labels.copyTo(bytes[0]);
+        } else {
+            throw new IllegalArgumentException("Tensor rank is " + shape.length + ", was expecting 2 or 1.");
+        }
+        return labelCodec.decode(bytes);
+    }
+
+    /**
+     * Predict label IDs for a given batch of input sequences, avoiding a string per predicted label.
+     *
+     * @param inputs input sequence batch
+     * @return batched sequence label IDs
+     */
+    @Override
+    public List<int[]> predictLabelIds(@NonNull List<HasFields> inputs) {
+        try (TrackedTensor<String> inputTensor = prepare(inputs);
+             TensorList results = run(inputTensor.tensor())) {
+            return decodeLabelIds(results);
+        }
+    }
+
+    @Override
+    public LabelCodec labelCodec() {
+        return labelCodec;
+    }
+
+    /**
+     * Use a given codec to intern this model's output labels, e.g. to keep label IDs stable across several models with the same
+     * label set. Should be called before the model is used.
+     *
+     * @param labelCodec label codec
+     * @return this model
+     */
+    public TensorflowModel labelCodec(@NonNull LabelCodec labelCodec) {
+        this.labelCodec = labelCodec;
+        return this;
+    }
+
+    /**
+     * Extract features from batches of at least a given size in parallel over a given pool (by default, the common pool with a
+     * threshold of 64 inputs). The feature extractor must be thread-safe. Should be called before the model is used.
+     *
+     * @param pool      pool used for parallel extraction
+     * @param threshold minimum batch size for parallel extraction, or {@link Integer#MAX_VALUE} to always extract on the
+     *                  calling thread
+     * @return this model
+     */
+    public TensorflowModel parallelExtraction(@NonNull ForkJoinPool pool, int threshold) {
+        Preconditions.checkArgument(threshold > 1, "Parallel extraction threshold must be greater than 1: %s", threshold);
+        this.extractionPool = pool;
+        this.parallelExtractionThreshold = threshold;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        sessions.close();
+        model.close();
+    }
+
+    public static TensorflowModel fromDirectory(@NonNull String modelDir, @NonNull SequenceExampleExtractor featureExtractor) {
+        SavedModelBundle model = SavedModelBundle.load(Paths.get(modelDir, "model").toString(), "serve");
+        return new TensorflowModel(featureExtractor, model);
+    }
+
+    /**
+     * Load a saved model with explicit session configuration, optionally creating a pool of sessions over its graph.
+     *
+     * @param modelDir         model directory, containing the saved model in a "model" subdirectory
+     * @param featureExtractor feature extractor
+     * @param config           session configuration
+     * @return Tensorflow model
+     */
+    public static TensorflowModel fromDirectory(@NonNull String modelDir,
+                                                @NonNull SequenceExampleExtractor featureExtractor,
+                                                @NonNull SessionConfig config) {
+        String exportDir = Paths.get(modelDir, "model").toString();
+        SavedModelBundle model = SavedModelBundle.loader(exportDir)
+                .withTags("serve")
+                .withConfigProto(config.toConfigProto().toByteArray())
+                .load();
+        try {
+            return new TensorflowModel(featureExtractor, model, SessionPool.of(model, exportDir, config), OP_NAME, FETCH_NAME);
+        } catch (RuntimeException e) {
+            model.close();
+            throw e;
+        }
+    }
+
+    public static TensorflowModel fromDirectory(@NonNull String modelDir) {
+        try (FileInputStream in = new FileInputStream(Paths.get(modelDir, "config.json").toString())) {
+            ConfigSpec spec = ConfigSpec.fromInputStream(in);
+            SequenceExampleExtractor extractor = Extractors.createExtractor(spec.features(),
+                    Paths.get(modelDir, "vocab").toString(), false);
+
+            return fromDirectory(modelDir, extractor);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
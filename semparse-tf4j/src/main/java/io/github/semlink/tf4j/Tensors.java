@@ -14,7 +14,7 @@
  * limitations under the License.
  */
 
-package io.github.semlink.tensor;
+package io.github.semlink.tf4j;
 
 import org.tensorflow.Tensor;
 import org.tensorflow.example.SequenceExample;
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import org.tensorflow.Tensor;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+/**
+ * {@link AutoCloseable} handle for a single {@link Tensor} accounted for by the {@link TensorTracker}.
+ *
+ * @param <T> tensor type
+ * @author jgung
+ */
+public class TrackedTensor<T> implements AutoCloseable {
+
+    /**
+     * Underlying tensor, which should not be closed directly.
+     */
+    @Getter
+    @Accessors(fluent = true)
+    private final Tensor<T> tensor;
+
+    private TrackedTensor(Tensor<T> tensor) {
+        this.tensor = tensor;
+    }
+
+    /**
+     * Start tracking a newly created tensor.
+     */
+    public static <T> TrackedTensor<T> of(@NonNull Tensor<T> tensor) {
+        return new TrackedTensor<>(TensorTracker.track(tensor));
+    }
+
+    @Override
+    public void close() {
+        TensorTracker.close(tensor);
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.semlink.parser.feat.BertSrlOnnxModel;
+import io.github.semlink.type.Fields;
+import io.github.semlink.type.HasFields;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Parity of {@link BertSrlOnnxModel} with the Tensorflow model it was exported from. Skipped unless both model directories
+ * are given, as the {@code semparse.tf.modelDir} and {@code semparse.onnx.modelDir} system properties.
+ *
+ * @author jgung
+ */
+public class BertSrlOnnxModelTest {
+
+    private static final String TF_MODEL_DIR = System.getProperty("semparse.tf.modelDir", "");
+    private static final String ONNX_MODEL_DIR = System.getProperty("semparse.onnx.modelDir", "");
+
+    private static final List<String> SENTENCES = Arrays.asList(
+            "John ate an apple .",
+            "They stole the painting from the museum",
+            "Brown presented a plaque to Jones",
+            "The committee , which had been meeting since Tuesday , finally approved the unprecedented budget proposal .",
+            "Go !");
+
+    private TensorflowModel tensorflow;
+    private BertSrlOnnxModel onnx;
+
+    @Before
+    public void setUp() {
+        assumeTrue("Tensorflow model directory not found", isDirectory(TF_MODEL_DIR));
+        assumeTrue("ONNX model directory not found", isDirectory(ONNX_MODEL_DIR));
+        onnx = BertSrlOnnxModel.fromDirectory(ONNX_MODEL_DIR, "model.onnx", "labels.txt", 0);
+        // share the codec, so that label IDs from both backends are comparable
+        tensorflow = BertSrlTensorflowBackend.bertFromDirectory(TF_MODEL_DIR).labelCodec(onnx.labelCodec());
+    }
+
+    @After
+    public void tearDown() {
+        if (null != tensorflow) {
+            tensorflow.close();
+        }
+        if (null != onnx) {
+            onnx.close();
+        }
+    }
+
+    private static boolean isDirectory(String path) {
+        return !path.isEmpty() && Files.isDirectory(Paths.get(path));
+    }
+
+    private static List<HasFields> inputs() {
+        List<HasFields> inputs = new ArrayList<>();
+        for (String sentence : SENTENCES) {
+            List<String> words = Arrays.asList(sentence.split(" "));
+            // one input per predicate position, covering predicates at the start, middle and end
+            for (int predicate : new int[]{0, words.size() / 2, words.size() - 1}) {
+                inputs.add(new Fields()
+                        .add("word", words)
+                        .add("predicate_index", predicate));
+            }
+        }
+        return inputs;
+    }
+
+    @Test
+    public void testBatchParity() {
+        List<HasFields> inputs = inputs();
+        List<int[]> expected = tensorflow.predictLabelIds(inputs);
+        List<int[]> actual = onnx.predictLabelIds(inputs);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertArrayEquals("Label IDs differ for input " + i, expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testSingleInputParity() {
+        for (HasFields input : inputs()) {
+            List<HasFields> batch = Collections.singletonList(input);
+            assertArrayEquals(tensorflow.predictLabelIds(batch).get(0), onnx.predictLabelIds(batch).get(0));
+        }
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        assertTrue(onnx.predictLabelIds(Collections.emptyList()).isEmpty());
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.tf4j;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.example.Feature;
+import org.tensorflow.example.FeatureList;
+import org.tensorflow.example.Int64List;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import io.github.semlink.app.CachingSubwordTokenizer;
+import io.github.semlink.app.SubwordTokenizer;
+import io.github.semlink.app.WordPieceTokenizer;
+import io.github.semlink.extractor.CharacterFeatureExtractor;
+import io.github.semlink.extractor.ExtractionPlan;
+import io.github.semlink.extractor.Extractor;
+import io.github.semlink.extractor.KeyFeatureListExtractor;
+import io.github.semlink.extractor.LengthExtractor;
+import io.github.semlink.extractor.Vocabulary;
+import io.github.semlink.extractor.config.FeatureSpec;
+import io.github.semlink.type.Fields;
+import io.github.semlink.type.HasFields;
+import io.github.semlink.util.StringIndex;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Concurrency tests of {@link TensorflowModel} input serialization, which runs without a Tensorflow session.
+ *
+ * @author jgung
+ */
+public class TensorflowModelTest {
+
+    private static final int THRESHOLD = 64;
+    private static final int THREADS = 8;
+    private static final int[] BATCH_SIZES = {1, 7, THRESHOLD - 1, THRESHOLD, 150, 500};
+
+    private static final List<String> WORDS = Arrays.asList("the", "cat", "cats", "sat", "on", "mat", "unbelievably",
+            "believe", "Thé", "café", "😀", "extraordinary", "qwzx", ",", ".");
+    private static final List<String> WORD_PIECES = Arrays.asList("[UNK]", "[CLS]", "[SEP]", "the", "cat", "##s", "sat", "on",
+            "mat", "un", "##believ", "##ably", "believe", "café", "extra", "##ordinary", ",", ".");
+
+    private ForkJoinPool extractionPool;
+    private ExecutorService callers;
+    private ExtractionPlan plan;
+    private CachingSubwordTokenizer tokenizer;
+
+    @Before
+    public void setUp() {
+        extractionPool = new ForkJoinPool(4);
+        callers = Executors.newFixedThreadPool(THREADS);
+        // small enough to evict entries while threads share it
+        tokenizer = new CachingSubwordTokenizer(new WordPieceTokenizer(StringIndex.of(WORD_PIECES), "[UNK]", 200), 512);
+        Vocabulary vocabulary = new Vocabulary(StringIndex.of(Arrays.asList(Vocabulary.PAD_WORD, Vocabulary.UNKNOWN_WORD,
+                "the", "cat", "sat", "on", "mat", "café")), Vocabulary.UNKNOWN_WORD);
+
+        KeyFeatureListExtractor words = new KeyFeatureListExtractor(new FeatureSpec().name("word").key("word"), vocabulary);
+        words.mappingFunctions(Arrays.asList(String::toLowerCase,
+                word -> vocabulary.indexToFeat(vocabulary.featToIndex(word))));
+        CharacterFeatureExtractor chars = new CharacterFeatureExtractor(new FeatureSpec().name("char").key("word")
+                .maxLen(8).leftPadding(1).rightPadding(1), null);
+        plan = new ExtractionPlan(Arrays.asList(words, wordPieces(tokenizer), chars),
+                Collections.singletonList(new LengthExtractor("word")), Collections.emptyMap());
+    }
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+        extractionPool.shutdownNow();
+    }
+
+    private static Extractor<FeatureList> wordPieces(SubwordTokenizer tokenizer) {
+        return new Extractor<FeatureList>() {
+            @Override
+            public String name() {
+                return "word_pieces";
+            }
+
+            @Override
+            public FeatureList extract(HasFields sequence) {
+                FeatureList.Builder list = FeatureList.newBuilder();
+                for (String word : sequence.<List<String>>field("word")) {
+                    Int64List.Builder ids = Int64List.newBuilder();
+                    for (int id : tokenizer.wordPieceIds(word)) {
+                        ids.addValue(id);
+                    }
+                    list.addFeature(Feature.newBuilder().setInt64List(ids));
+                }
+                return list.build();
+            }
+        };
+    }
+
+    private static List<HasFields> batch(Random random, int size) {
+        List<HasFields> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            List<String> words = new ArrayList<>();
+            for (int j = random.nextInt(20); j >= 0; --j) {
+                words.add(WORDS.get(random.nextInt(WORDS.size())));
+            }
+            batch.add(new Fields().add("word", words));
+        }
+        return batch;
+    }
+
+    private byte[][] expected(List<HasFields> batch) {
+        byte[][] examples = new byte[batch.size()][];
+        for (int i = 0; i < batch.size(); ++i) {
+            examples[i] = plan.extractSequence(batch.get(i)).toByteArray();
+        }
+        return examples;
+    }
+
+    private static void assertExamples(byte[][] expected, byte[][] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; ++i) {
+            assertArrayEquals("Example " + i + " differs", expected[i], actual[i]);
+        }
+    }
+
+    @Test
+    public void testSerializeMatchesSequentialExtraction() {
+        Random random = new Random(0);
+        for (int size : BATCH_SIZES) {
+            List<HasFields> batch = batch(random, size);
+            byte[][] expected = expected(batch);
+            assertExamples(expected, TensorflowModel.serialize(plan, batch, extractionPool, Integer.MAX_VALUE));
+            assertExamples(expected, TensorflowModel.serialize(plan, batch, extractionPool, THRESHOLD));
+        }
+    }
+
+    @Test
+    public void testConcurrentSerialize() throws Exception {
+        Random random = new Random(1);
+        List<List<HasFields>> batches = new ArrayList<>();
+        List<byte[][]> expected = new ArrayList<>();
+        for (int i = 0; i < 12; ++i) {
+            for (int size : BATCH_SIZES) {
+                List<HasFields> batch = batch(random, size);
+                batches.add(batch);
+                expected.add(expected(batch));
+            }
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; ++thread) {
+            int offset = thread;
+            tasks.add(() -> {
+                // each thread visits every batch, starting at a different one
+                for (int i = 0; i < batches.size(); ++i) {
+                    int index = (offset * 5 + i) % batches.size();
+                    assertExamples(expected.get(index),
+                            TensorflowModel.serialize(plan, batches.get(index), extractionPool, THRESHOLD));
+                }
+                return null;
+            });
+        }
+        for (Future<Void> result : callers.invokeAll(tasks)) {
+            result.get();
+        }
+    }
+
+}
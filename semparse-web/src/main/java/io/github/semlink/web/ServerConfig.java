@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * {@link VerbNetParserServer} configuration.
+ *
+ * @author jgung
+ */
+@Getter
+@Setter
+@Accessors(fluent = true)
+public class ServerConfig {
+
+    /**
+     * Host name or address to bind to.
+     */
+    private String host = "localhost";
+
+    /**
+     * Port to listen on, or 0 for any free port.
+     */
+    private int port = 8080;
+
+    /**
+     * Maximum number of queued incoming TCP connections, or 0 to use the system default.
+     */
+    private int backlog = 0;
+
+    /**
+     * Number of threads reading requests and writing rejections.
+     */
+    private int ioThreads = 2;
+
+    /**
+     * Maximum number of parse requests processed concurrently.
+     */
+    private int workerThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of parse requests waiting for a worker. Requests arriving when the queue is full are rejected with a 503
+     * status.
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Maximum number of sentences accepted in a single batch request. Larger requests are rejected with a 413 status.
+     */
+    private int maxBatchSize = 64;
+
+    /**
+     * Batch sizes run through the SRL model at startup, before the server reports itself as ready.
+     */
+    private List<Integer> warmupBatchSizes = new ArrayList<>(Arrays.asList(1, 8, 32));
+
+    /**
+     * Sequence lengths (in tokens) run through the SRL model at startup, for each warmup batch size.
+     */
+    private List<Integer> warmupSequenceLengths = new ArrayList<>(Arrays.asList(8, 16, 32, 64));
+
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.github.clearwsd.parser.Nlp4jDependencyParser;
+import io.github.clearwsd.parser.NlpParser;
+import io.github.semlink.app.InferenceBackends;
+import io.github.semlink.app.LabelingModel;
+import io.github.semlink.app.ModelWarmup;
+import io.github.semlink.parser.DefaultVnPredicateDetector;
+import io.github.semlink.parser.LightVerbMapper;
+import io.github.semlink.parser.RoleLabelerUtils;
+import io.github.semlink.parser.VerbNetParse;
+import io.github.semlink.parser.VerbNetParseSerializer;
+import io.github.semlink.parser.VerbNetParser;
+import io.github.semlink.parser.VerbNetSenseClassifier;
+import io.github.semlink.semlink.VerbNetAligner;
+import io.github.semlink.tf4j.TensorTracker;
+import io.github.semlink.verbnet.DefaultVnIndex;
+import io.github.semlink.verbnet.VnIndex;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import static io.github.semlink.parser.VerbNetParser.pbRoleLabeler;
+
+/**
+ * Embedded HTTP server exposing a single shared {@link VerbNetParser} through JSON endpoints:
+ * <ul>
+ * <li>{@code POST /parse} with {@code {"sentence": "..."}}</li>
+ * <li>{@code POST /parse/batch} with {@code {"sentences": ["...", ...]}}</li>
+ * <li>{@code GET /health}, reporting liveness and queue statistics</li>
+ * <li>{@code GET /ready}, returning 200 only once the SRL model has been warmed up (see {@link ModelWarmup})</li>
+ * </ul>
+ * Only exact paths are served; any other path returns a 404 status. Parse requests are processed by a fixed number of
+ * workers with a bounded queue; requests arriving when the queue is full are rejected with a 503 status.
+ *
+ * @author jgung
+ */
+@Slf4j
+public class VerbNetParserServer implements AutoCloseable {
+
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private final Function<String, VerbNetParse> parser;
+    private final LabelingModel model;
+    private final ModelWarmup warmup;
+    private final ServerConfig config;
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(VerbNetParseSerializer.module());
+
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService ioExecutor;
+    private final HttpServer server;
+
+    private volatile boolean closed = false;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Initialize a server over a given parser.
+     *
+     * @param parser VerbNet parser
+     * @param model  SRL model used by the parser, warmed up before the server reports itself as ready
+     * @param config server configuration
+     */
+    public VerbNetParserServer(@NonNull VerbNetParser parser,
+                               @NonNull LabelingModel model,
+                               @NonNull ServerConfig config) throws IOException {
+        this(parser::parse, model, config);
+    }
+
+    /**
+     * Initialize a server over a given parsing function.
+     *
+     * @param parser function parsing a single sentence, called concurrently from worker threads
+     * @param model  SRL model used by the parser, warmed up before the server reports itself as ready
+     * @param config server configuration
+     */
+    public VerbNetParserServer(@NonNull Function<String, VerbNetParse> parser,
+                               @NonNull LabelingModel model,
+                               @NonNull ServerConfig config) throws IOException {
+        this.parser = parser;
+        this.model = model;
+        this.warmup = RoleLabelerUtils.shallowSemanticParserWarmup(config.warmupBatchSizes(),
+                config.warmupSequenceLengths());
+        this.config = config;
+        this.workers = new ThreadPoolExecutor(config.workerThreads(), config.workerThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.queueCapacity()), new ThreadPoolExecutor.AbortPolicy());
+        this.ioExecutor = Executors.newFixedThreadPool(config.ioThreads());
+        this.server = HttpServer.create(new InetSocketAddress(config.host(), config.port()), config.backlog());
+        this.server.setExecutor(ioExecutor);
+        createContext("/parse", exchange -> handleParse(exchange, false));
+        createContext("/parse/batch", exchange -> handleParse(exchange, true));
+        createContext("/health", this::handleHealth);
+        createContext("/ready", this::handleReady);
+    }
+
+    /**
+     * Contexts match any path starting with their own, e.g. "/parsefoo" for "/parse", so other paths are rejected here.
+     */
+    private void createContext(String path, HttpHandler handler) {
+        server.createContext(path, exchange -> {
+            if (!path.equals(exchange.getRequestURI().getPath())) {
+                respond(exchange, 404, error("No endpoint at " + exchange.getRequestURI().getPath()));
+                return;
+            }
+            handler.handle(exchange);
+        });
+    }
+
+    /**
+     * Start accepting requests and warm up the SRL model in the background. The server reports itself as ready once warmup
+     * completes.
+     */
+    public void start() {
+        server.start();
+        log.info("Listening on {}:{}", config.host(), port());
+        Thread warmupThread = new Thread(this::warmup, "parser-warmup");
+        warmupThread.setDaemon(true);
+        warmupThread.start();
+    }
+
+    /**
+     * Port the server is bound to.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns true once the SRL model has been warmed up and requests are accepted.
+     */
+    public boolean ready() {
+        return !closed && warmup.ready();
+    }
+
+    private void warmup() {
+        try {
+            warmup.run(model);
+        } catch (Exception e) {
+            log.error("Model warmup failed, server will not report ready", e);
+        }
+    }
+
+    private void handleParse(HttpExchange exchange, boolean batch) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            respond(exchange, 405, error("Expected a POST request"));
+            return;
+        }
+        if (!ready()) {
+            respond(exchange, 503, error("Parser is not ready"));
+            return;
+        }
+
+        List<String> sentences;
+        try (InputStream in = exchange.getRequestBody()) {
+            sentences = readSentences(mapper.readTree(in), batch);
+        } catch (IOException | IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+            return;
+        }
+        if (sentences.size() > config.maxBatchSize()) {
+            respond(exchange, 413, error("Batch size " + sentences.size() + " exceeds maximum of " + config.maxBatchSize()));
+            return;
+        }
+
+        try {
+            workers.execute(() -> process(exchange, sentences, batch));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            respond(exchange, 503, error("Request queue is full"));
+        }
+    }
+
+    private List<String> readSentences(JsonNode request, boolean batch) {
+        if (null == request || !request.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        if (!batch) {
+            JsonNode sentence = request.get("sentence");
+            if (null == sentence || !sentence.isTextual()) {
+                throw new IllegalArgumentException("Missing \"sentence\" field");
+            }
+            return Collections.singletonList(sentence.asText());
+        }
+        JsonNode sentences = request.get("sentences");
+        if (null == sentences || !sentences.isArray()) {
+            throw new IllegalArgumentException("Missing \"sentences\" array");
+        }
+        List<String> result = new ArrayList<>();
+        for (JsonNode sentence : sentences) {
+            if (!sentence.isTextual()) {
+                throw new IllegalArgumentException("Expected sentences to be strings");
+            }
+            result.add(sentence.asText());
+        }
+        return result;
+    }
+
+    private void process(HttpExchange exchange, List<String> sentences, boolean batch) {
+        try {
+            List<VerbNetParse> parses = sentences.stream()
+                    .map(parser)
+                    .collect(Collectors.toList());
+            completed.incrementAndGet();
+            respond(exchange, 200, batch ? Collections.singletonMap("parses", parses) : parses.get(0));
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.warn("Failed to parse request", e);
+            try {
+                respond(exchange, 500, error("Parsing failed: " + e.getMessage()));
+            } catch (IOException ioe) {
+                log.warn("Unable to write error response", ioe);
+            }
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", "UP");
+        health.put("ready", ready());
+        health.put("active", workers.getActiveCount());
+        health.put("queued", workers.getQueue().size());
+        health.put("completed", completed.get());
+        health.put("failed", failed.get());
+        health.put("rejected", rejected.get());
+        health.put("liveTensors", TensorTracker.liveTensors());
+        health.put("liveTensorBytes", TensorTracker.liveBytes());
+        health.put("leakedTensors", TensorTracker.leakedTensors());
+        respond(exchange, 200, health);
+    }
+
+    private void handleReady(HttpExchange exchange) throws IOException {
+        boolean isReady = ready();
+        respond(exchange, isReady ? 200 : 503, Collections.singletonMap("ready", isReady));
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> error(String message) {
+        return Collections.singletonMap("error", message);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        server.stop(0);
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        ioExecutor.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        ServerConfig config = new ServerConfig();
+        if (args.length > 0) {
+            config.port(Integer.parseInt(args[0]));
+        }
+
+        // VerbNet index over VerbNet classes/frames
+        VnIndex verbNet = new DefaultVnIndex();
+        // Dependency parser used for WSD model and alignment logic
+        NlpParser dependencyParser = new Nlp4jDependencyParser();
+        // WSD model for predicting VerbNet classes (uses ClearWSD and the NLP4J parser)
+        VerbNetSenseClassifier classifier = VerbNetSenseClassifier.fromModelPath("semparse/nlp4j-verbnet-3.3.bin",
+                verbNet, dependencyParser);
+        // PropBank SRL model, shared by the role labeler and the warmup routine
+        LabelingModel srlModel = InferenceBackends.forName("tensorflow")
+                .load("semparse/propbank-srl", Collections.emptyMap());
+        VerbNetParser parser = new VerbNetParser(
+                new DefaultVnPredicateDetector(classifier, LightVerbMapper.fromMappingsPath("semparse/lvm.tsv", verbNet)),
+                classifier,
+                pbRoleLabeler(srlModel),
+                VerbNetAligner.of("semparse/pbvn-mappings.json", "semparse/unified-frames.bin"));
+
+        VerbNetParserServer server = new VerbNetParserServer(parser, srlModel, config);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        server.start();
+    }
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.semlink.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.github.semlink.app.Chunking;
+import io.github.semlink.app.IndexedChunking;
+import io.github.semlink.app.InferenceBackends;
+import io.github.semlink.app.LabelCodec;
+import io.github.semlink.app.LabelingModel;
+import io.github.semlink.app.StubBackend;
+import io.github.semlink.parser.ParseProfile;
+import io.github.semlink.parser.Proposition;
+import io.github.semlink.parser.VerbNetParse;
+import io.github.semlink.propbank.type.PropBankArg;
+import io.github.semlink.type.Fields;
+import io.github.semlink.type.HasFields;
+import lombok.NonNull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link VerbNetParserServer} tests over an ephemeral local port, using a {@link StubBackend} model for both parsing and
+ * warmup.
+ *
+ * @author jgung
+ */
+public class VerbNetParserServerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private GatedModel model;
+    private VerbNetParserServer server;
+    private ExecutorService clients;
+    // closed while parsing should block, to fill the worker queue
+    private volatile CountDownLatch parseGate = new CountDownLatch(0);
+    private final CountDownLatch parsing = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws IOException {
+        model = new GatedModel(InferenceBackends.forName(StubBackend.NAME).load("", Collections.emptyMap()));
+        ServerConfig config = new ServerConfig()
+                .port(0)
+                .workerThreads(1)
+                .queueCapacity(1)
+                .maxBatchSize(2)
+                .warmupBatchSizes(Arrays.asList(1, 2))
+                .warmupSequenceLengths(Collections.singletonList(4));
+        server = new VerbNetParserServer(this::parse, model, config);
+        server.start();
+        clients = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        parseGate.countDown();
+        model.warmupGate.countDown();
+        server.close();
+        clients.shutdownNow();
+    }
+
+    private VerbNetParse parse(String sentence) {
+        parsing.countDown();
+        try {
+            parseGate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        List<String> tokens = Arrays.asList(sentence.split(" "));
+        int predicate = tokens.size() / 2;
+        HasFields input = new Fields().add("word", tokens).add("predicate_index", predicate);
+        int[] labels = model.predictLabelIds(Collections.singletonList(input)).get(0);
+        Chunking<PropBankArg> arguments = IndexedChunking.map(model.labelCodec().chunking(labels), PropBankArg::fromLabel);
+        VerbNetParse parse = new VerbNetParse()
+                .profile(ParseProfile.SRL_ONLY)
+                .tokens(tokens);
+        parse.propositions().add(new Proposition<>(predicate, null, arguments));
+        return parse;
+    }
+
+    @Test
+    public void testNotReadyUntilWarmedUp() throws Exception {
+        assertEquals(503, request("GET", "/ready", null).status);
+        assertEquals(503, request("POST", "/parse", "{\"sentence\": \"John ate an apple\"}").status);
+
+        awaitReady();
+        Response ready = request("GET", "/ready", null);
+        assertEquals(200, ready.status);
+        assertTrue(ready.json.get("ready").asBoolean());
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        awaitReady();
+        Response response = request("POST", "/parse", "{\"sentence\": \"John ate an apple\"}");
+        assertEquals(200, response.status);
+        assertEquals(4, response.json.get("tokens").size());
+        JsonNode proposition = response.json.get("propositions").get(0);
+        assertEquals(2, proposition.get("relIndex").asInt());
+        JsonNode arguments = proposition.get("arguments");
+        assertEquals(3, arguments.size());
+        assertEquals("A0", arguments.get(0).get("pb").asText());
+        assertEquals("John ate", arguments.get(0).get("text").asText());
+        assertEquals("V", arguments.get(1).get("pb").asText());
+        assertEquals("A1", arguments.get(2).get("pb").asText());
+    }
+
+    @Test
+    public void testParseBatch() throws Exception {
+        awaitReady();
+        Response response = request("POST", "/parse/batch", "{\"sentences\": [\"John ate\", \"Mary sold the car\"]}");
+        assertEquals(200, response.status);
+        JsonNode parses = response.json.get("parses");
+        assertEquals(2, parses.size());
+        assertEquals(2, parses.get(0).get("tokens").size());
+        assertEquals(4, parses.get(1).get("tokens").size());
+
+        assertEquals(413, request("POST", "/parse/batch", "{\"sentences\": [\"a\", \"b\", \"c\"]}").status);
+        assertEquals(400, request("POST", "/parse/batch", "{\"sentences\": \"a\"}").status);
+    }
+
+    @Test
+    public void testInvalidRequests() throws Exception {
+        awaitReady();
+        assertEquals(400, request("POST", "/parse", "{\"text\": \"John ate an apple\"}").status);
+        assertEquals(400, request("POST", "/parse", "{\"sentence\": 1}").status);
+        assertEquals(400, request("POST", "/parse", "not json").status);
+        assertEquals(405, request("GET", "/parse", null).status);
+    }
+
+    @Test
+    public void testExactPaths() throws Exception {
+        awaitReady();
+        assertEquals(404, request("POST", "/parsefoo", "{\"sentence\": \"John ate an apple\"}").status);
+        assertEquals(404, request("POST", "/parse/", "{\"sentence\": \"John ate an apple\"}").status);
+        assertEquals(404, request("POST", "/parse/batchx", "{\"sentences\": [\"John ate\"]}").status);
+        assertEquals(404, request("GET", "/readyz", null).status);
+        assertEquals(404, request("GET", "/health/x", null).status);
+        assertEquals(200, request("GET", "/health", null).status);
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        awaitReady();
+        parseGate = new CountDownLatch(1);
+
+        // first request occupies the only worker, second waits in the queue
+        Future<Response> first = clients.submit(() -> request("POST", "/parse", "{\"sentence\": \"John ate\"}"));
+        assertTrue(parsing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Future<Response> second = clients.submit(() -> request("POST", "/parse", "{\"sentence\": \"Mary sold it\"}"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (request("GET", "/health", null).json.get("queued").asInt() < 1) {
+            assertTrue("Request was not queued", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+
+        Response rejected = request("POST", "/parse", "{\"sentence\": \"Bob slept\"}");
+        assertEquals(503, rejected.status);
+        assertEquals("Request queue is full", rejected.json.get("error").asText());
+
+        parseGate.countDown();
+        assertEquals(200, first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).status);
+        assertEquals(200, second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).status);
+
+        JsonNode health = request("GET", "/health", null).json;
+        assertEquals(1, health.get("rejected").asInt());
+        assertEquals(2, health.get("completed").asInt());
+    }
+
+    private void awaitReady() throws Exception {
+        model.warmupGate.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (request("GET", "/ready", null).status != 200) {
+            assertTrue("Server did not become ready", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private Response request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.port() + path)
+                .openConnection();
+        connection.setRequestMethod(method);
+        if (null != body) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, mapper.readTree(new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8)));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static class Response {
+
+        private final int status;
+        private final JsonNode json;
+
+        private Response(int status, JsonNode json) {
+            this.status = status;
+            this.json = json;
+        }
+
+    }
+
+    /**
+     * Model that blocks until its warmup gate is opened, so that the server's readiness can be observed before warmup.
+     */
+    private static class GatedModel implements LabelingModel {
+
+        private final LabelingModel delegate;
+        private final CountDownLatch warmupGate = new CountDownLatch(1);
+
+        private GatedModel(LabelingModel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<int[]> predictLabelIds(@NonNull List<HasFields> inputs) {
+            try {
+                warmupGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return delegate.predictLabelIds(inputs);
+        }
+
+        @Override
+        public List<String> predict(@NonNull HasFields input) {
+            return delegate.labelCodec().labels(predictLabelIds(Collections.singletonList(input)).get(0));
+        }
+
+        @Override
+        public List<List<String>> predictBatch(@NonNull List<HasFields> inputs) {
+            return predictLabelIds(inputs).stream()
+                    .map(delegate.labelCodec()::labels)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public LabelCodec labelCodec() {
+            return delegate.labelCodec();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+    }
+
+}